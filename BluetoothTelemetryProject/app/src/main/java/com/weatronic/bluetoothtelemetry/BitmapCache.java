@@ -0,0 +1,204 @@
+package com.weatronic.bluetoothtelemetry;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Process-wide cache of decoded image resources, shared by all instruments.
+ * Images are decoded downsampled by a power of two to the smallest size still covering the requested size,
+ * so instruments of similar size share one bitmap ("size bucket" = resource and sample size).
+ * Bitmaps are reference counted: each {@link #acquire(Resources, int, int, int)} must be matched by a {@link #release(Bitmap)}.
+ * Bitmaps nobody uses are kept for reuse and evicted, least recently used first, when the cache exceeds its byte budget.
+ * The static layers of the instruments are not shared, but are {@link #createLayer(int, int) created} here as well,
+ * so that they count against the same budget.
+ * Only used on the UI thread.
+ */
+final class BitmapCache {
+    /**
+     * Stores the instance to be returned.
+     * See {@link #getInstance()}
+     */
+    private static BitmapCache instance = null;
+    /**
+     * A decoded image and the number of its users.
+     */
+    private static final class Entry{
+        final Bitmap bitmap;
+        /**
+         * Size of {@link #bitmap} in bytes.
+         */
+        final int bytes;
+        /**
+         * Number of {@link #acquire(Resources, int, int, int) acquires} not released yet.
+         */
+        int users = 0;
+
+        Entry(Bitmap bitmap){
+            this.bitmap = bitmap;
+            this.bytes = bitmap.getByteCount();
+        }
+    }
+    /**
+     * Entries by resource ID and sample size, in order of last use (least recently used first).
+     */
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Maximum size of all bitmaps in bytes. Bitmaps in use are never evicted, so it can be exceeded by them.
+     */
+    private final long budget;
+    /**
+     * Size of all cached bitmaps in bytes.
+     */
+    private long size = 0;
+    /**
+     * Size of all layers not {@link #releaseLayer(Bitmap) released} yet, in bytes.
+     */
+    private long layerSize = 0;
+
+    /**
+     * Returns the shared cache.
+     * Constructs it if it has not been constructed; otherwise returns the existing one.
+     */
+    static synchronized BitmapCache getInstance(){
+        if(instance == null){
+            //a small share of the heap; the instrument artwork needs a few MB at most
+            instance = new BitmapCache(Runtime.getRuntime().maxMemory() / 16);
+        }
+        return instance;
+    }
+    /**
+     * @param budget Maximum size of all bitmaps in bytes
+     */
+    BitmapCache(long budget){
+        this.budget = budget;
+    }
+    /**
+     * Returns an image resource decoded for the given size, decoding it if no bitmap of this size bucket is cached.
+     * The bitmap must not be changed or recycled by the caller, and must be {@link #release(Bitmap) released} after use.
+     * @param res Resources to decode from
+     * @param id Drawable resource ID
+     * @param width Width the image will be drawn at (pixels)
+     * @param height Height the image will be drawn at (pixels)
+     * @return Shared bitmap, null if the resource could not be decoded
+     */
+    synchronized Bitmap acquire(Resources res, int id, int width, int height){
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        //full size of the image, without decoding it
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(res, id, options);
+        int sample = 1;
+        while(options.outWidth / (sample * 2) >= width && options.outHeight / (sample * 2) >= height){
+            sample *= 2;
+        }
+        long key = ((long)id << 32) | sample;
+        Entry entry = entries.get(key);
+        if(entry == null){
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = sample;
+            Bitmap bitmap;
+            try{
+                bitmap = BitmapFactory.decodeResource(res, id, options);
+            }catch(OutOfMemoryError e){
+                //free unused bitmaps and try once more
+                trimTo(0);
+                try{
+                    bitmap = BitmapFactory.decodeResource(res, id, options);
+                }catch(OutOfMemoryError again){
+                    //no image
+                    bitmap = null;
+                }
+            }
+            if(bitmap == null) return null;
+            entry = new Entry(bitmap);
+            entries.put(key, entry);
+            size += entry.bytes;
+        }
+        entry.users++;
+        trimTo(budget);
+        return entry.bitmap;
+    }
+    /**
+     * Ends the use of a bitmap. Unused bitmaps stay cached until evicted.
+     * @param bitmap Bitmap returned by {@link #acquire(Resources, int, int, int)}, null is ignored
+     */
+    synchronized void release(Bitmap bitmap){
+        if(bitmap == null) return;
+        for(Entry entry : entries.values()){
+            if(entry.bitmap == bitmap){
+                if(entry.users > 0) entry.users--;
+                break;
+            }
+        }
+        trimTo(budget);
+    }
+    /**
+     * Creates a bitmap for the static layer of an instrument, if it fits the budget. Unused images are evicted to make room;
+     * images in use are not, so with many large instruments some get no layer and draw everything each frame.
+     * The layer belongs to the caller and must be {@link #releaseLayer(Bitmap) released} when it is dropped.
+     * @param width Width in pixels
+     * @param height Height in pixels
+     * @return New ARGB_8888 bitmap, null if it does not fit the budget or memory
+     */
+    synchronized Bitmap createLayer(int width, int height){
+        long bytes = (long)width * height * 4;
+        trimTo(budget - bytes);
+        if(size + layerSize + bytes > budget) return null;
+        Bitmap layer;
+        try{
+            layer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }catch(OutOfMemoryError e){
+            //no layer
+            return null;
+        }
+        layerSize += layer.getByteCount();
+        return layer;
+    }
+    /**
+     * Ends the use of a layer. It is not recycled, because it may still be referenced by a display list; it is freed
+     * once unreferenced.
+     * @param layer Bitmap returned by {@link #createLayer(int, int)}, null is ignored
+     */
+    synchronized void releaseLayer(Bitmap layer){
+        if(layer == null) return;
+        layerSize -= layer.getByteCount();
+    }
+    /**
+     * Evicts all unused bitmaps, e.g. when the system is low on memory.
+     */
+    synchronized void trimUnused(){
+        trimTo(0);
+    }
+    /**
+     * Evicts unused bitmaps, least recently used first, until the cache and the layers are not larger than the given size.
+     * @param maxSize Size in bytes
+     */
+    private void trimTo(long maxSize){
+        Iterator<Entry> it = entries.values().iterator();
+        Entry entry;
+        while(size + layerSize > maxSize && it.hasNext()){
+            entry = it.next();
+            if(entry.users == 0){
+                it.remove();
+                size -= entry.bytes;
+                entry.bitmap.recycle();
+            }
+        }
+    }
+    /**
+     * @return Size of all cached bitmaps in bytes, without layers
+     */
+    synchronized long size(){
+        return size;
+    }
+    /**
+     * @return Size of all layers in use, in bytes
+     */
+    synchronized long layerSize(){
+        return layerSize;
+    }
+}
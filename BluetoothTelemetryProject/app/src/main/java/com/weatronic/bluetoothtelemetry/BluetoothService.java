@@ -50,6 +50,19 @@ public class BluetoothService{
      * Connection is handled within a thread, therefore functions from other activity cannot be called directly.
      */
     private Handler incomingHandler;
+    /**
+     * Queue to write incoming data into. Drained by the {@link DecodeThread}.
+     */
+    private volatile ByteRing incomingRing;
+    /**
+     * Default for {@link #readSize}.
+     */
+    public static final int DEFAULT_READ_SIZE = 1024;
+    /**
+     * Maximum number of bytes taken from the input stream in one read.
+     * Larger reads let bursts be taken in fewer calls. Applies from the next connection.
+     */
+    private int readSize = DEFAULT_READ_SIZE;
 
     /**
      * Bluetooth adapter.
@@ -190,6 +203,22 @@ public class BluetoothService{
         filter.addAction(BluetoothDevice.ACTION_ACL_DISCONNECTED);
         ctx.registerReceiver(mReceiver, filter);
     }
+    /**
+     * Sets the queue that receives incoming data.
+     * @param ring Queue drained by a {@link DecodeThread}
+     */
+    public void setIncomingRing(ByteRing ring){
+        this.incomingRing = ring;
+    }
+    /**
+     * Sets the maximum number of bytes taken from the input stream in one read.
+     * @param readSize Read size in bytes, takes effect with the next connection
+     */
+    public void setReadSize(int readSize){
+        if(readSize > 0){
+            this.readSize = readSize;
+        }
+    }
     /**
      * Breaks all connections, stops all processes and destroys service instance.
      */
@@ -587,13 +616,35 @@ public class BluetoothService{
         }
 
         public void run() {
-            byte[] buffer = new byte[256];
+            int size = readSize;
+            //only used while data can not be queued
+            byte[] discard = new byte[size];
             int bytes;
+            int space;
+            ByteRing ring;
 
             while (true) {
                 try {
-                    bytes = mmInStream.read(buffer);
-                    incomingHandler.obtainMessage(Constants.INCOMING_MESSAGE, bytes, -1, buffer).sendToTarget();
+                    ring = incomingRing;
+                    space = ring == null ? 0 : ring.claim(size);
+                    if(space > 0){
+                        //read straight into the decoder queue; the claimed space is ours until committed
+                        bytes = mmInStream.read(ring.buffer(), ring.writeOffset(), space);
+                        if(bytes > 0){
+                            //stamped as soon as the data is available, before any processing
+                            ring.commit(bytes, System.nanoTime());
+                        }
+                    }else{
+                        //no decoder or decoder too slow, keep draining the socket
+                        bytes = mmInStream.read(discard);
+                        if(ring != null && bytes > 0){
+                            ring.overrun(bytes);
+                        }
+                    }
+                    if(bytes < 0){
+                        //end of stream
+                        throw new IOException();
+                    }
                     //h.obtainMessage(CONN_STATUS, READ_SUCCESSFUL).sendToTarget();
                 } catch (IOException e) {
                     connectionHandler.obtainMessage(Constants.CONN_STATUS, Constants.READ_ERROR).sendToTarget();
@@ -0,0 +1,250 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free byte queue between exactly one producer thread (Bluetooth reader) and one consumer thread (decoder).
+ * Each position is only written by one side; publishing it through a volatile field makes the bytes before it visible to the other side.
+ * Both sides work directly on the backing array: the producer {@link #claim(int) claims} free space, writes and commits it,
+ * the consumer reads at {@link #readOffset()} and releases it. A region is only ever owned by one side, so no copies are needed.
+ * If the consumer falls behind and the ring is full, the producer drops what it reads and counts it as an overrun.
+ * The next chunk is marked as following a gap, so the consumer can drop a frame that lost its middle part instead of splicing it.
+ * Every committed chunk carries the time it was received; the consumer reads chunk by chunk to know when each byte arrived.
+ */
+class ByteRing {
+    /**
+     * Backing array. Its length is a power of two, so positions can be wrapped with a mask.
+     */
+    private final byte[] buffer;
+    /**
+     * {@link #buffer} length - 1.
+     */
+    private final int mask;
+    /**
+     * Chunk marks: position after the last byte of each committed chunk.
+     */
+    private final long[] markEnds;
+    /**
+     * Chunk marks: receive time of each committed chunk, in {@link System#nanoTime()} time base.
+     */
+    private final long[] markTimes;
+    /**
+     * Chunk marks: true if data was dropped right before the chunk. Cleared by the consumer when taken, see {@link #takeGap()}.
+     */
+    private final boolean[] markGaps;
+    /**
+     * Chunk mark arrays length - 1. The length is a power of two.
+     */
+    private final int markMask;
+    /**
+     * Total number of chunks committed. Only changed by the producer.
+     */
+    private volatile long markWritePos = 0;
+    /**
+     * Index of the chunk containing the next byte to read. Only changed by the consumer.
+     */
+    private volatile long markReadPos = 0;
+    /**
+     * Total number of bytes written. Only changed by the producer.
+     */
+    private volatile long writePos = 0;
+    /**
+     * Total number of bytes read. Only changed by the consumer.
+     */
+    private volatile long readPos = 0;
+    /**
+     * Consumer thread while it is waiting for data, null otherwise.
+     */
+    private volatile Thread waiter = null;
+    /**
+     * Largest number of queued bytes seen by the producer.
+     */
+    private volatile int maxDepth = 0;
+    /**
+     * Number of chunks dropped because the ring was full.
+     */
+    private volatile long overruns = 0;
+    /**
+     * Number of bytes in dropped chunks.
+     */
+    private volatile long bytesOverrun = 0;
+    /**
+     * True if data was dropped since the last commit. Only used by the producer.
+     */
+    private boolean gapPending = false;
+    /**
+     * Class constructor.
+     * @param capacity Minimum capacity in bytes, rounded up to a power of two
+     */
+    ByteRing(int capacity){
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        buffer = new byte[size];
+        mask = size - 1;
+        //chunks are usually much larger than 16 bytes
+        int marks = Math.max(size / 16, 16);
+        markEnds = new long[marks];
+        markTimes = new long[marks];
+        markGaps = new boolean[marks];
+        markMask = marks - 1;
+    }
+    /**
+     * Producer side. Reserves space to write into directly, e.g. with {@link java.io.InputStream#read(byte[], int, int)}.
+     * The space belongs to the producer until {@link #commit(int) committed}; the consumer never reads it before that.
+     * @param max Maximum number of bytes needed
+     * @return Number of bytes that can be written into {@link #buffer()} at {@link #writeOffset()}; 0 if the ring is full
+     */
+    int claim(int max){
+        if(markWritePos - markReadPos == markEnds.length){
+            //no room to record another chunk
+            return 0;
+        }
+        long w = writePos;
+        int free = buffer.length - (int)(w - readPos);
+        return Math.min(max, Math.min(free, buffer.length - ((int)w & mask)));
+    }
+    /**
+     * Producer side.
+     * @return Index in {@link #buffer()} of the next byte to write
+     */
+    int writeOffset(){
+        return (int)writePos & mask;
+    }
+    /**
+     * Producer side. Hands written bytes over to the consumer as one chunk and wakes it up.
+     * @param count Number of bytes written, at most the result of the last {@link #claim(int)}
+     * @param timeNs Time the bytes were received, in {@link System#nanoTime()} time base
+     */
+    void commit(int count, long timeNs){
+        long w = writePos + count;
+        long m = markWritePos;
+        markEnds[(int)m & markMask] = w;
+        markTimes[(int)m & markMask] = timeNs;
+        markGaps[(int)m & markMask] = gapPending;
+        gapPending = false;
+        //publish the mark before the bytes, so the consumer never sees bytes without their mark
+        markWritePos = m + 1;
+        writePos = w;
+        int depth = (int)(w - readPos);
+        if(depth > maxDepth){
+            maxDepth = depth;
+        }
+        Thread t = waiter;
+        if(t != null){
+            LockSupport.unpark(t);
+        }
+    }
+    /**
+     * Producer side. Counts a chunk that was dropped because the ring was full.
+     * @param count Number of bytes dropped
+     */
+    void overrun(int count){
+        gapPending = true;
+        overruns++;
+        bytesOverrun += count;
+    }
+    /**
+     * Consumer side. Blocks until data is available or the thread is interrupted.
+     */
+    void awaitData(){
+        if(writePos != readPos) return;
+        waiter = Thread.currentThread();
+        //checked again after registering, so a write in between is not missed
+        while(writePos == readPos && !Thread.currentThread().isInterrupted()){
+            LockSupport.park(this);
+        }
+        waiter = null;
+    }
+    /**
+     * Consumer side.
+     * @return Number of bytes that can be read from {@link #buffer()} at {@link #readOffset()} without wrapping
+     */
+    int readableContiguous(){
+        long r = readPos;
+        int available = (int)(writePos - r);
+        return Math.min(available, buffer.length - ((int)r & mask));
+    }
+    /**
+     * Consumer side.
+     * @return Number of bytes that can be read from {@link #buffer()} at {@link #readOffset()} without wrapping,
+     * all from the same chunk and therefore received at {@link #chunkTime()}
+     */
+    int readableChunk(){
+        int available = readableContiguous();
+        if(available == 0) return 0;
+        long r = readPos;
+        long m = markReadPos;
+        while(markEnds[(int)m & markMask] <= r){
+            m++;
+        }
+        markReadPos = m;
+        return (int)Math.min(available, markEnds[(int)m & markMask] - r);
+    }
+    /**
+     * Consumer side.
+     * @return Receive time of the bytes returned by the last {@link #readableChunk()}, in {@link System#nanoTime()} time base
+     */
+    long chunkTime(){
+        return markTimes[(int)markReadPos & markMask];
+    }
+    /**
+     * Consumer side. Tells once per chunk whether data was dropped right before the bytes returned by the last {@link #readableChunk()}.
+     * @return True if the chunk follows an overrun, so a frame started before it can not be completed
+     */
+    boolean takeGap(){
+        int m = (int)markReadPos & markMask;
+        //the mark belongs to the consumer until it moves past it
+        boolean gap = markGaps[m];
+        markGaps[m] = false;
+        return gap;
+    }
+    /**
+     * Consumer side.
+     * @return Index in {@link #buffer()} of the next byte to read
+     */
+    int readOffset(){
+        return (int)readPos & mask;
+    }
+    /**
+     * Consumer side. Marks bytes as read, making their space available to the producer.
+     * @param count Number of bytes, at most {@link #readableContiguous()}
+     */
+    void release(int count){
+        readPos += count;
+    }
+    /**
+     * Backing array, for reading and writing in place. Each side may only access the range it currently owns.
+     */
+    byte[] buffer(){
+        return buffer;
+    }
+    /**
+     * @return Capacity in bytes
+     */
+    public int getCapacity(){
+        return buffer.length;
+    }
+    /**
+     * @return Number of bytes currently queued
+     */
+    public int getDepth(){
+        return (int)(writePos - readPos);
+    }
+    /**
+     * @return Largest number of bytes queued at once
+     */
+    public int getMaxDepth(){
+        return maxDepth;
+    }
+    /**
+     * @return Number of chunks dropped because the ring was full
+     */
+    public long getOverruns(){
+        return overruns;
+    }
+    /**
+     * @return Number of bytes dropped because the ring was full
+     */
+    public long getBytesOverrun(){
+        return bytesOverrun;
+    }
+}
@@ -0,0 +1,82 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of fields changed since the last update of the instruments, one bit per {@link TelemetryData#slot field slot}.
+ * The decoding thread {@link #mark(int) marks} fields as they are set. Once per update, the UI thread {@link #swap() takes}
+ * the marked bits, which instruments then {@link #contains(int) check} to decide if they need to be redrawn.
+ */
+class ChangedFields {
+    /**
+     * Bits marked since the last {@link #swap()}. Shared between threads.
+     */
+    private final AtomicLongArray pending;
+    /**
+     * Bits taken by the last {@link #swap()}. Only used on the UI thread.
+     */
+    private final long[] current;
+    /**
+     * Class constructor.
+     * @param slots Number of field slots
+     */
+    ChangedFields(int slots){
+        int words = (slots + 63) >>> 6;
+        pending = new AtomicLongArray(words);
+        current = new long[words];
+    }
+    /**
+     * Marks a field as changed. Called by the decoding thread.
+     * @param slot Slot of the field
+     */
+    void mark(int slot){
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        long old;
+        do{
+            old = pending.get(word);
+            if((old & bit) != 0) return;
+        }while(!pending.compareAndSet(word, old, old | bit));
+    }
+    /**
+     * Takes all marks made since the last call, leaving the set empty for the next update. Called on the UI thread.
+     * @return True if any field was marked
+     */
+    boolean swap(){
+        long any = 0;
+        for(int i = 0; i < current.length; i++){
+            current[i] = pending.getAndSet(i, 0);
+            any |= current[i];
+        }
+        return any != 0;
+    }
+    /**
+     * @return True if any field was marked since the last {@link #swap()}
+     */
+    boolean hasPending(){
+        for(int i = 0; i < current.length; i++){
+            if(pending.get(i) != 0) return true;
+        }
+        return false;
+    }
+    /**
+     * Marks the fields taken by the last {@link #swap()} again, so that the next update includes them too. Called on the UI thread.
+     */
+    void keep(){
+        long old;
+        for(int i = 0; i < current.length; i++){
+            if(current[i] == 0) continue;
+            do{
+                old = pending.get(i);
+            }while(!pending.compareAndSet(i, old, old | current[i]));
+        }
+    }
+    /**
+     * @param slot Slot of the field
+     * @return True if the field was marked when the last {@link #swap()} was made
+     */
+    boolean contains(int slot){
+        int word = slot >>> 6;
+        return word < current.length && (current[word] & (1L << slot)) != 0;
+    }
+}
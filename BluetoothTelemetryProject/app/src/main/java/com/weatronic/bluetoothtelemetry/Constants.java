@@ -7,7 +7,6 @@ import java.util.UUID;
  * Includes named event codes and a default UUID.
  */
 public class Constants {
-    public static final int INCOMING_MESSAGE = 1;
     public static final int CONN_STATUS = 2;
     public static final int CONN_ERROR = 3;
     public static final int DATA_UPDATED = 4;
@@ -0,0 +1,147 @@
+package com.weatronic.bluetoothtelemetry;
+
+/**
+ * List of fields of one config message, resolved once so that data messages can be decoded without lookups.
+ * Column i of a data message is decoded into the field resolved for config value i.
+ * Fields are looked up, type-checked and cast when the plan is built, not for every data message.
+ * A plan is immutable and only valid for the {@link TelemetryDataContainer} it was built with.
+ */
+class DecodePlan {
+    /**
+     * Column kinds.
+     */
+    static final byte SKIP = 0;
+    static final byte SIMPLE = 1;
+    static final byte COMPOSITE = 2;
+    /**
+     * Field IDs of the config message, index 0 is the message type and always 0.
+     */
+    final long[] ids;
+    /**
+     * Container whose fields the plan refers to.
+     * Switching protocols creates a new container, which makes the plan outdated.
+     */
+    final TelemetryDataContainer container;
+    /**
+     * Kind of each column: {@link #SKIP}, {@link #SIMPLE} or {@link #COMPOSITE}.
+     */
+    private final byte[] kinds;
+    /**
+     * Simple field of each column, null for other kinds.
+     */
+    private final TelemetryDataSimple[] simple;
+    /**
+     * Composite field of each column, null for other kinds.
+     */
+    private final TelemetryDataComposite[] composite;
+    /**
+     * Slots to mark as changed for each composite column: the composite field itself and all its subfields.
+     */
+    private final int[][] compositeSlots;
+    /**
+     * Resolves the fields of a config message.
+     * Unknown and invalid IDs (0) are skipped.
+     * @param ids Field IDs of the config message; not copied, must not be changed afterwards
+     * @param container Container holding the fields
+     */
+    DecodePlan(long[] ids, TelemetryDataContainer container){
+        this.ids = ids;
+        this.container = container;
+        int count = ids.length;
+        kinds = new byte[count];
+        simple = new TelemetryDataSimple[count];
+        composite = new TelemetryDataComposite[count];
+        compositeSlots = new int[count][];
+        TelemetryData field;
+        for(int i = 1; i < count; i++){
+            field = ids[i] == 0 ? null : container.getFieldById(ids[i]);
+            if(field instanceof TelemetryDataComposite){
+                kinds[i] = COMPOSITE;
+                composite[i] = (TelemetryDataComposite)field;
+                compositeSlots[i] = new int[composite[i].subfields.size() + 1];
+                compositeSlots[i][0] = field.slot;
+                for(int j = 0; j < composite[i].subfields.size(); j++){
+                    compositeSlots[i][j + 1] = composite[i].subfields.get(j).slot;
+                }
+            }else if(field instanceof TelemetryDataSimple){
+                kinds[i] = SIMPLE;
+                simple[i] = (TelemetryDataSimple)field;
+            }
+        }
+    }
+    /**
+     * @param other Field IDs to compare with, index 0 is ignored
+     * @param count Number of used entries in other
+     * @return True if this plan was built for the same field IDs
+     */
+    boolean matches(long[] other, int count){
+        if(ids.length != count) return false;
+        for(int i = 1; i < count; i++){
+            if(ids[i] != other[i]) return false;
+        }
+        return true;
+    }
+    /**
+     * Sets the values of a data message to the resolved fields.
+     * Value i spans from starts[i] to the delimiter before starts[i + 1]; the last value ends at end.
+     * Values beyond the config and empty values are ignored.
+     * Updated fields are marked in the {@link ChangedFields} of the store.
+     * The whole message is written as one unit of the store, so readers never see it partly applied.
+     * @param values Values of the session, for the fields of the plan's container
+     * @param buf Message buffer
+     * @param starts Start index of each value
+     * @param fieldCount Number of values in the message, including the message type
+     * @param end Index of the '*' that ends the values
+     * @param timeNs Receive time of the message, in {@link System#nanoTime()} time base; stored with the field values
+     */
+    void apply(ValueStore values, byte[] buf, int[] starts, int fieldCount, int end, long timeNs){
+        int count = Math.min(fieldCount, kinds.length);
+        values.beginWrite();
+        try{
+            values.setSampleTime(timeNs);
+            applyValues(values, buf, starts, fieldCount, end, count);
+        }finally{
+            values.endWrite();
+        }
+    }
+    /**
+     * Sets the values of the first count columns, see {@link #apply(ValueStore, byte[], int[], int, int, long)}.
+     */
+    private void applyValues(ValueStore values, byte[] buf, int[] starts, int fieldCount, int end, int count){
+        ChangedFields changes = values.changes;
+        int from, to;
+        long value;
+        for(int i = 1; i < count; i++){
+            if(kinds[i] == SKIP) continue;
+            from = starts[i];
+            to = i + 1 < fieldCount ? starts[i + 1] - 1 : end;
+            if(to - from < 2){
+                //empty value (less than 1 complete byte)
+                continue;
+            }
+            if(kinds[i] == SIMPLE){
+                value = HexDecoder.parseLittleEndian(buf, from, to);
+                if(value == HexDecoder.INVALID){
+                    //invalid string, do not update value
+                    continue;
+                }
+                try {
+                    simple[i].setValue(values, value);
+                    changes.mark(simple[i].slot);
+                }catch(Exception e){
+                    //invalid value, do not update
+                }
+            }else{
+                try {
+                    composite[i].setValues(values, buf, from, to);
+                }catch(Exception e){
+                    //invalid string, do not update value
+                }
+                //subfields are set one by one, some may have changed even after an exception
+                for(int slot : compositeSlots[i]){
+                    changes.mark(slot);
+                }
+            }
+        }
+    }
+}
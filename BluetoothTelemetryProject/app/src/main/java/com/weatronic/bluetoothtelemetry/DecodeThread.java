@@ -0,0 +1,83 @@
+package com.weatronic.bluetoothtelemetry;
+
+/**
+ * Decodes incoming Bluetooth data outside of the UI thread.
+ * Drains the {@link ByteRing} filled by {@link BluetoothService}, assembles frames and lets the {@link Parser} update the fields.
+ * After a batch of data changed any values, an update is requested from the {@link UpdateDispatcher}.
+ */
+class DecodeThread extends Thread {
+    /**
+     * Capacity of {@link #ring}. Leaves room for bursts while the decoder is busy with a new config.
+     */
+    static final int RING_CAPACITY = 64 * 1024;
+    /**
+     * Queue between the Bluetooth reader and this thread.
+     */
+    private final ByteRing ring = new ByteRing(RING_CAPACITY);
+    /**
+     * Assembles frames from {@link #ring} contents.
+     */
+    private final FrameDecoder frameDecoder;
+    /**
+     * Receives frames, see {@link #frameDecoder}.
+     */
+    private final Parser parser;
+    /**
+     * Delivers updates to the UI.
+     */
+    private final UpdateDispatcher dispatcher;
+    /**
+     * Cleared to stop the thread.
+     */
+    private volatile boolean running = true;
+    /**
+     * Class constructor.
+     * @param parser Parser to process frames
+     * @param dispatcher Delivers updates to the UI
+     */
+    DecodeThread(Parser parser, UpdateDispatcher dispatcher){
+        super("TelemetryDecode");
+        this.parser = parser;
+        this.dispatcher = dispatcher;
+        this.frameDecoder = new FrameDecoder(parser);
+    }
+
+    @Override
+    public void run(){
+        int count;
+        while(running){
+            ring.awaitData();
+            //drain everything queued so far, then request one update
+            while((count = ring.readableChunk()) > 0){
+                if(ring.takeGap()){
+                    //data before this chunk was dropped, the frame in progress lost its middle part
+                    frameDecoder.reset();
+                }
+                frameDecoder.consume(ring.buffer(), ring.readOffset(), count, ring.chunkTime());
+                ring.release(count);
+            }
+            if(parser.takeDataUpdated()){
+                dispatcher.requestUpdate();
+            }
+        }
+    }
+    /**
+     * Stops the thread. Queued data is discarded.
+     */
+    void quit(){
+        running = false;
+        interrupt();
+    }
+    /**
+     * @return Queue to write incoming Bluetooth data into
+     */
+    ByteRing getRing(){
+        return ring;
+    }
+    /**
+     * @return Frame decoder, for its statistics
+     */
+    FrameDecoder getFrameDecoder(){
+        return frameDecoder;
+    }
+}
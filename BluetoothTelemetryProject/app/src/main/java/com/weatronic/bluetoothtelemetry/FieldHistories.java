@@ -0,0 +1,128 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.Arrays;
+
+/**
+ * Optional {@link FieldHistory histories} of fields, indexed by {@link TelemetryData#slot field slot}.
+ * A field only keeps a history while it is {@link #subscribe(int) subscribed}; all subscribers of a field share one history.
+ * A fixed memory budget is split evenly across the subscribed fields, so subscribing a field shrinks the others.
+ * Subscriptions are changed on the UI thread; the decoding thread only {@link #get(int) looks up} histories to add samples.
+ */
+class FieldHistories {
+    /**
+     * Memory used per sample: a long time and a double value.
+     */
+    static final int BYTES_PER_SAMPLE = 16;
+    /**
+     * Default memory budget for all histories together, in bytes.
+     */
+    static final long DEFAULT_BUDGET = 4 * 1024 * 1024;
+    /**
+     * Smallest history, in samples. Used if the budget is too small for the number of subscribed fields.
+     */
+    static final int MIN_CAPACITY = 64;
+    /**
+     * History of each slot, null for slots without subscribers. Replaced as a whole on every change.
+     */
+    private volatile FieldHistory[] bySlot = new FieldHistory[0];
+    /**
+     * Number of subscribers of each slot.
+     */
+    private int[] subscribers = new int[0];
+    /**
+     * Number of slots with subscribers.
+     */
+    private int subscribedSlots = 0;
+    /**
+     * Memory budget in bytes.
+     */
+    private long budget = DEFAULT_BUDGET;
+    /**
+     * Looks up the history of a field. Called by the decoding thread for every sample.
+     * @param slot Slot of the field
+     * @return History, null if the field has no subscribers
+     */
+    FieldHistory get(int slot){
+        FieldHistory[] histories = bySlot;
+        return slot < histories.length ? histories[slot] : null;
+    }
+    /**
+     * Starts or shares the history of a field.
+     * @param slot Slot of the field
+     * @return History of the field
+     */
+    synchronized FieldHistory subscribe(int slot){
+        if(slot >= subscribers.length){
+            subscribers = Arrays.copyOf(subscribers, slot + 1);
+        }
+        if(subscribers[slot]++ == 0){
+            subscribedSlots++;
+            resize();
+        }
+        return get(slot);
+    }
+    /**
+     * Ends one subscription. The history of the field is dropped with the last one.
+     * @param slot Slot of the field
+     */
+    synchronized void unsubscribe(int slot){
+        if(slot >= subscribers.length || subscribers[slot] == 0) return;
+        if(--subscribers[slot] == 0){
+            subscribedSlots--;
+            resize();
+        }
+    }
+    /**
+     * Changes the memory budget. Histories are resized right away, keeping their newest samples.
+     * @param bytes Budget for all histories together, in bytes
+     */
+    synchronized void setBudget(long bytes){
+        budget = bytes;
+        resize();
+    }
+    /**
+     * @return Memory budget in bytes
+     */
+    public synchronized long getBudget(){
+        return budget;
+    }
+    /**
+     * @return Number of samples each history can hold with the current subscriptions
+     */
+    public synchronized int getCapacity(){
+        return capacityFor(Math.max(subscribedSlots, 1));
+    }
+    /**
+     * @return Capacity that fits the budget, a power of two
+     */
+    private int capacityFor(int slots){
+        long samples = budget / BYTES_PER_SAMPLE / slots;
+        if(samples < MIN_CAPACITY) return MIN_CAPACITY;
+        return Integer.highestOneBit((int)Math.min(samples, 1 << 30));
+    }
+    /**
+     * Splits the budget across the subscribed slots and publishes the new histories.
+     * A history whose capacity changes is replaced by one holding its newest samples;
+     * samples added to the old history until the new one is published are taken over by the decoding thread.
+     */
+    private void resize(){
+        FieldHistory[] old = bySlot;
+        FieldHistory[] histories = new FieldHistory[subscribers.length];
+        int capacity = capacityFor(Math.max(subscribedSlots, 1));
+        FieldHistory previous;
+        for(int slot = 0; slot < subscribers.length; slot++){
+            if(subscribers[slot] == 0) continue;
+            previous = slot < old.length ? old[slot] : null;
+            if(previous != null && previous.getCapacity() == capacity){
+                histories[slot] = previous;
+            }else{
+                histories[slot] = new FieldHistory(capacity);
+                if(previous != null){
+                    histories[slot].copyFrom(previous);
+                }
+            }
+        }
+        //publish
+        bySlot = histories;
+    }
+}
@@ -0,0 +1,223 @@
+package com.weatronic.bluetoothtelemetry;
+
+/**
+ * Recent samples of one field: (time, value) pairs in a fixed-capacity ring of primitive arrays.
+ * Written by the decoding thread only; any number of readers can look at the same samples through a {@link Window},
+ * which reads the ring directly instead of copying it. Once full, the oldest sample is overwritten by each new one.
+ */
+class FieldHistory {
+    /**
+     * Receive time of each sample, in {@link System#nanoTime()} time base.
+     */
+    private final long[] times;
+    /**
+     * Converted value of each sample.
+     */
+    private final double[] values;
+    /**
+     * Ring length - 1. The length is a power of two.
+     */
+    private final int mask;
+    /**
+     * Total number of samples added; the sequence number of the next sample. Only changed by the writer.
+     * A history {@link #copyFrom(FieldHistory) taken over} from another one continues its numbering.
+     */
+    private volatile long count = 0;
+    /**
+     * Sequence number of the oldest sample held, above 0 if older samples could not be taken over from another history.
+     */
+    private volatile long start = 0;
+    /**
+     * History this one was copied from, until its samples added after the copy are taken over too. Only used by the writer
+     * once this history is published.
+     */
+    private FieldHistory source = null;
+    /**
+     * Class constructor.
+     * @param capacity Minimum number of samples, rounded up to a power of two
+     */
+    FieldHistory(int capacity){
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        times = new long[size];
+        values = new double[size];
+        mask = size - 1;
+    }
+    /**
+     * Adds a sample. Called by the decoding thread.
+     * @param timeNs Time of the sample
+     * @param value Converted value
+     */
+    void add(long timeNs, double value){
+        if(source != null){
+            catchUp();
+        }
+        put(timeNs, value);
+    }
+    /**
+     * Stores a sample as the next one and publishes it.
+     */
+    private void put(long timeNs, double value){
+        long c = count;
+        int i = (int)c & mask;
+        times[i] = timeNs;
+        values[i] = value;
+        //publish
+        count = c + 1;
+    }
+    /**
+     * Takes over the newest samples of another history, e.g. when the capacity changes.
+     * Must be called before this history is published; the other history may still be written meanwhile.
+     * Samples overwritten while they were copied are discarded, and samples added to the other history
+     * after the copy are taken over by the first {@link #add(long, double)}.
+     * @param other History to copy from
+     */
+    void copyFrom(FieldHistory other){
+        long end = other.count;
+        long first = Math.max(end - mask, other.oldestReadable(end));
+        for(long seq = first; seq < end; seq++){
+            times[(int)seq & mask] = other.times[(int)seq & other.mask];
+            values[(int)seq & mask] = other.values[(int)seq & other.mask];
+        }
+        //the writer may have overwritten the oldest samples while they were copied
+        start = Math.max(first, other.oldestReadable(other.count));
+        count = end;
+        source = other;
+    }
+    /**
+     * Takes over the samples added to the {@link #source} history after it was copied. Called by the decoding thread,
+     * which no longer writes to the source once this history is published.
+     * If the history was replaced several times before the next sample, the sources catch up oldest first.
+     */
+    private void catchUp(){
+        FieldHistory history;
+        while(source != null){
+            history = this;
+            while(history.source.source != null){
+                history = history.source;
+            }
+            history.takeOverSource();
+        }
+    }
+    /**
+     * Copies the samples added to the {@link #source} history after it was copied, and forgets the source.
+     */
+    private void takeOverSource(){
+        FieldHistory other = source;
+        source = null;
+        long end = other.count;
+        long first = Math.max(count, other.oldestReadable(end));
+        if(first > count){
+            //samples in between are gone
+            start = first;
+            count = first;
+        }
+        for(long seq = first; seq < end; seq++){
+            put(other.times[(int)seq & other.mask], other.values[(int)seq & other.mask]);
+        }
+    }
+    /**
+     * @return Number of samples the ring can hold
+     */
+    public int getCapacity(){
+        return times.length;
+    }
+    /**
+     * @return Total number of samples added since the history of the field was started
+     */
+    public long getCount(){
+        return count;
+    }
+    /**
+     * Sequence number of the oldest sample that can be read safely.
+     * The sample one ring length before {@link #count} may be overwritten at any moment, so it is excluded.
+     */
+    private long oldestReadable(long end){
+        return Math.max(end - mask, start);
+    }
+    /**
+     * Points a window at the newest samples.
+     * @param n Maximum number of samples
+     * @param window Window to set, can be reused
+     * @return Number of samples in the window
+     */
+    int last(int n, Window window){
+        long end = count;
+        long first = Math.max(end - Math.max(n, 0), oldestReadable(end));
+        window.set(this, first, (int)(end - first));
+        return window.size;
+    }
+    /**
+     * Points a window at all samples taken at or after a time.
+     * @param timeNs Start time, in {@link System#nanoTime()} time base
+     * @param window Window to set, can be reused
+     * @return Number of samples in the window
+     */
+    int since(long timeNs, Window window){
+        long end = count;
+        long low = oldestReadable(end);
+        long high = end;
+        //binary search for the first sample not older than timeNs; times only increase
+        while(low < high){
+            long mid = (low + high) >>> 1;
+            if(times[(int)mid & mask] - timeNs < 0){
+                low = mid + 1;
+            }else{
+                high = mid;
+            }
+        }
+        window.set(this, low, (int)(end - low));
+        return window.size;
+    }
+    /**
+     * View of consecutive samples of a history, oldest first. Reads the ring of the history directly.
+     * The writer may overwrite the oldest samples while they are read; check {@link #isIntact()} after reading.
+     */
+    static class Window {
+        /**
+         * History the window points into.
+         */
+        private FieldHistory history;
+        /**
+         * Sequence number of the first sample.
+         */
+        private long first;
+        /**
+         * Number of samples.
+         */
+        private int size = 0;
+        /**
+         * Points the window at a range of samples.
+         */
+        private void set(FieldHistory history, long first, int size){
+            this.history = history;
+            this.first = first;
+            this.size = size;
+        }
+        /**
+         * @return Number of samples
+         */
+        public int size(){
+            return size;
+        }
+        /**
+         * @param i Index of the sample, 0 (oldest) to {@link #size()} - 1
+         * @return Time of the sample, in {@link System#nanoTime()} time base
+         */
+        public long timeAt(int i){
+            return history.times[(int)(first + i) & history.mask];
+        }
+        /**
+         * @param i Index of the sample, 0 (oldest) to {@link #size()} - 1
+         * @return Value of the sample
+         */
+        public double valueAt(int i){
+            return history.values[(int)(first + i) & history.mask];
+        }
+        /**
+         * @return True if no sample of the window has been overwritten yet. Values read before this returned true are valid.
+         */
+        public boolean isIntact(){
+            return size == 0 || first >= history.oldestReadable(history.count);
+        }
+    }
+}
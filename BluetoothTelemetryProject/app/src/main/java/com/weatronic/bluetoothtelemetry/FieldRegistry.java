@@ -0,0 +1,136 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.Arrays;
+
+/**
+ * Map of field IDs to fields, without boxing the IDs.
+ * IDs are kept in an open addressing hash table (linear probing) that points into a dense array of fields.
+ * The dense array keeps insertion order and can be iterated with {@link #size()} and {@link #valueAt(int)}.
+ */
+final class FieldRegistry {
+    /**
+     * Hash table: ID of each used bucket.
+     */
+    private long[] keys;
+    /**
+     * Hash table: index in {@link #values} + 1 for each bucket, 0 for empty buckets.
+     */
+    private int[] indices;
+    /**
+     * Fields in insertion order.
+     */
+    private TelemetryData[] values;
+    /**
+     * Number of fields.
+     */
+    private int size = 0;
+    /**
+     * Hash table length - 1. The length is a power of two and at least twice the number of fields.
+     */
+    private int mask;
+
+    FieldRegistry(){
+        this(512);
+    }
+    /**
+     * @param expected Expected number of fields
+     */
+    FieldRegistry(int expected){
+        int buckets = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+        keys = new long[buckets];
+        indices = new int[buckets];
+        values = new TelemetryData[buckets / 2];
+        mask = buckets - 1;
+    }
+    /**
+     * @param id Field ID
+     * @return Field with this ID, null if there is none
+     */
+    TelemetryData get(long id){
+        int bucket = hash(id) & mask;
+        int index;
+        while((index = indices[bucket]) != 0){
+            if(keys[bucket] == id){
+                return values[index - 1];
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return null;
+    }
+    /**
+     * Adds a field. A field with the same ID is replaced and keeps its position.
+     * @param id Field ID
+     * @param field Field
+     */
+    void put(long id, TelemetryData field){
+        int bucket = hash(id) & mask;
+        int index;
+        while((index = indices[bucket]) != 0){
+            if(keys[bucket] == id){
+                values[index - 1] = field;
+                return;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        if(size == values.length){
+            grow();
+            put(id, field);
+            return;
+        }
+        values[size++] = field;
+        keys[bucket] = id;
+        indices[bucket] = size;
+    }
+    /**
+     * Removes all fields.
+     */
+    void clear(){
+        Arrays.fill(indices, 0);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+    /**
+     * @return Number of fields
+     */
+    int size(){
+        return size;
+    }
+    /**
+     * @param i Position in insertion order, 0 to {@link #size()} - 1
+     * @return Field at this position
+     */
+    TelemetryData valueAt(int i){
+        return values[i];
+    }
+    /**
+     * Doubles the capacity and rebuilds the hash table.
+     */
+    private void grow(){
+        int buckets = keys.length * 2;
+        long[] oldKeys = keys;
+        int[] oldIndices = indices;
+        keys = new long[buckets];
+        indices = new int[buckets];
+        mask = buckets - 1;
+        TelemetryData[] grown = new TelemetryData[buckets / 2];
+        System.arraycopy(values, 0, grown, 0, size);
+        values = grown;
+        int bucket;
+        for(int i = 0; i < oldIndices.length; i++){
+            if(oldIndices[i] == 0) continue;
+            bucket = hash(oldKeys[i]) & mask;
+            while(indices[bucket] != 0){
+                bucket = (bucket + 1) & mask;
+            }
+            keys[bucket] = oldKeys[i];
+            indices[bucket] = oldIndices[i];
+        }
+    }
+    /**
+     * Spreads the ID bits, since similar IDs differ mostly in a few middle bits.
+     */
+    private static int hash(long id){
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,178 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Search index over the fields of one {@link TelemetryDataContainer}, used to filter the field lists while the user types.
+ * A field matches if every word of the query occurs in its name, hex ID or units (case-insensitive), e.g. "cell 12" or "4013".
+ * The index maps each 3-character sequence (trigram) of the searchable text to the fields containing it, so a query only
+ * checks the fields of its rarest trigram. A query that extends the previous one only checks the previous results.
+ * Built once per container, see {@link TelemetryDataContainer#getSearchIndex()}; read-only afterwards.
+ */
+final class FieldSearchIndex {
+    /**
+     * Indexed fields, sorted by name with {@link NumberAwareAlphabeticSort}. Results are positions in this array.
+     */
+    private final TelemetryData[] fields;
+    /**
+     * Searchable text of each field: lower case name, hex ID and units (of simple fields) separated by line breaks.
+     */
+    private final String[] texts;
+    /**
+     * Positions of the fields containing each trigram, in ascending order.
+     */
+    private final HashMap<Long, int[]> trigrams = new HashMap<>();
+
+    /**
+     * Result of a query. Pass it to the next {@link #search(String, Result)} to filter incrementally.
+     */
+    static final class Result {
+        /**
+         * Query text, lower case.
+         */
+        final String query;
+        /**
+         * Positions of the matching fields; the first {@link #count} are used.
+         */
+        private final int[] matches;
+        /**
+         * Number of matching fields.
+         */
+        final int count;
+
+        private Result(String query, int[] matches, int count){
+            this.query = query;
+            this.matches = matches;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Indexes all fields of a container, including the subfields of composite fields.
+     * @param container Finished container
+     */
+    FieldSearchIndex(TelemetryDataContainer container){
+        //sort once, results keep this order; each name is split only once
+        final HashMap<TelemetryData, NumberAwareAlphabeticSort.Key> keys = new HashMap<>();
+        ArrayList<TelemetryData> all = new ArrayList<>(container.fields.size());
+        for(int i = 0; i < container.fields.size(); i++){
+            all.add(container.fields.valueAt(i));
+            keys.put(container.fields.valueAt(i), new NumberAwareAlphabeticSort.Key(container.fields.valueAt(i).name));
+        }
+        Collections.sort(all, new Comparator<TelemetryData>(){
+            @Override
+            public int compare(TelemetryData a, TelemetryData b){
+                return NumberAwareAlphabeticSort.keyComparator.compare(keys.get(a), keys.get(b));
+            }
+        });
+        fields = all.toArray(new TelemetryData[all.size()]);
+        texts = new String[fields.length];
+
+        HashMap<Long, ArrayList<Integer>> postings = new HashMap<>();
+        ArrayList<Integer> list;
+        for(int i = 0; i < fields.length; i++){
+            texts[i] = (fields[i].name + "\n" + Long.toHexString(fields[i].ID) + "\n"
+                    + (fields[i] instanceof TelemetryDataSimple ? ((TelemetryDataSimple)fields[i]).units : "")).toLowerCase();
+            for(int c = 0; c + 3 <= texts[i].length(); c++){
+                long key = trigram(texts[i], c);
+                if(key < 0) continue;
+                list = postings.get(key);
+                if(list == null){
+                    list = new ArrayList<>();
+                    postings.put(key, list);
+                }
+                //positions are added in ascending order, a repeated trigram of the same field is the last entry
+                if(list.isEmpty() || list.get(list.size() - 1) != i){
+                    list.add(i);
+                }
+            }
+        }
+        for(Long key : postings.keySet()){
+            list = postings.get(key);
+            int[] positions = new int[list.size()];
+            for(int i = 0; i < positions.length; i++){
+                positions[i] = list.get(i);
+            }
+            trigrams.put(key, positions);
+        }
+    }
+    /**
+     * Packs three characters of a text into one key.
+     * @return Key, -1 if the trigram spans a line break (crosses the parts of the searchable text)
+     */
+    private static long trigram(String text, int at){
+        char a = text.charAt(at), b = text.charAt(at + 1), c = text.charAt(at + 2);
+        if(a == '\n' || b == '\n' || c == '\n') return -1;
+        return ((long)a << 32) | ((long)b << 16) | c;
+    }
+    /**
+     * @return Number of indexed fields
+     */
+    int size(){
+        return fields.length;
+    }
+    /**
+     * @param result Result of {@link #search(String, Result)}
+     * @param i Index from 0 to {@link Result#count} - 1
+     * @return The i-th matching field
+     */
+    TelemetryData get(Result result, int i){
+        return fields[result.matches[i]];
+    }
+    /**
+     * Finds the fields matching a query.
+     * @param query Words separated by spaces, empty matches all fields
+     * @param previous Result of the previous query, may be null. Used if the new query extends it.
+     * @return Matching fields in name order
+     */
+    Result search(String query, Result previous){
+        String text = query.toLowerCase();
+        String[] words = text.trim().split("\\s+");
+        if(words.length == 1 && words[0].isEmpty()){
+            words = new String[0];
+        }
+        //candidates: previous results if the query was only extended, otherwise the rarest trigram
+        int[] candidates = null;
+        int count = 0;
+        if(previous != null && text.startsWith(previous.query)){
+            candidates = previous.matches;
+            count = previous.count;
+        }else{
+            int[] positions;
+            for(String word : words){
+                for(int c = 0; c + 3 <= word.length(); c++){
+                    positions = trigrams.get(trigram(word, c));
+                    if(positions == null){
+                        //no field contains this trigram
+                        return new Result(text, new int[0], 0);
+                    }
+                    if(candidates == null || positions.length < count){
+                        candidates = positions;
+                        count = positions.length;
+                    }
+                }
+            }
+        }
+        int[] matches = new int[candidates == null ? fields.length : count];
+        int found = 0;
+        int position;
+        boolean match;
+        for(int i = 0; i < matches.length; i++){
+            position = candidates == null ? i : candidates[i];
+            match = true;
+            for(String word : words){
+                if(texts[position].indexOf(word) < 0){
+                    match = false;
+                    break;
+                }
+            }
+            if(match){
+                matches[found++] = position;
+            }
+        }
+        return new Result(text, matches, found);
+    }
+}
@@ -0,0 +1,221 @@
+package com.weatronic.bluetoothtelemetry;
+
+import android.content.Context;
+
+import java.util.HashMap;
+
+/**
+ * Field catalog of one protocol as flat tables, one row per declared field and one column per constructor parameter.
+ * The tables are generated at build time from <code>src/main/catalog/fields.json</code> into {@link FieldTables};
+ * {@link TelemetryDataContainer} creates its fields from them row by row.
+ * A minimal perfect hash finds the row of a declared field ID without searching.
+ */
+final class FieldTable {
+    //row kinds, same values as in fieldtables.gradle
+    static final byte NUMBER = 0;
+    static final byte BITMASK = 1;
+    static final byte TIMESTAMP = 2;
+    static final byte MS_UTC = 3;
+    static final byte ARRAY_DV4 = 4;
+    static final byte ARRAY_SKYNAV = 5;
+    static final byte ARRAY_VIRTUAL = 6;
+    static final byte GPS_DV4 = 7;
+    static final byte GPS_SKYNAV = 8;
+    static final byte POWER_SUPPLY = 9;
+    /**
+     * Protocol of the fields.
+     */
+    final int protocol;
+    /**
+     * Literal text of names and units.
+     */
+    private final String[] strings;
+    /**
+     * ID of each row: the field ID, or the ID of the first element for virtual arrays.
+     */
+    final long[] ids;
+    /**
+     * Kind of each row, selects the field class.
+     */
+    private final byte[] kinds;
+    /**
+     * Parts of all names: string resource IDs, or -1 - index in {@link #strings} for literal text.
+     */
+    private final int[] nameParts;
+    /**
+     * Start of the name of row r at index 2r and of its element name at 2r + 1; the end of both is the next offset.
+     */
+    private final int[] nameOffsets;
+    /**
+     * Index of the units of each row in {@link #strings}.
+     */
+    private final int[] units;
+    private final int[] limitMin;
+    private final int[] limitMax;
+    private final float[] factorK;
+    private final int[] factorA;
+    /**
+     * Number of elements of arrays.
+     */
+    private final int[] count;
+    /**
+     * Data type of array elements.
+     */
+    private final int[] type;
+    /**
+     * Index of the first element of arrays, used in element names.
+     */
+    private final int[] firstIndex;
+    /**
+     * ID of the first element of SkyNavigator arrays, or the ID step between elements of virtual arrays.
+     */
+    private final long[] extra;
+    /**
+     * Hash seed of each bucket; negative values are -1 - slot of the only ID in the bucket.
+     */
+    private final int[] hashSeeds;
+    /**
+     * Row of each hash slot.
+     */
+    private final int[] hashSlots;
+
+    /**
+     * Class constructor, only called by the generated {@link FieldTables}. Takes the columns as they are.
+     */
+    FieldTable(int protocol, String[] strings, long[] ids, byte[] kinds, int[] nameParts, int[] nameOffsets, int[] units,
+               int[] limitMin, int[] limitMax, float[] factorK, int[] factorA, int[] count, int[] type, int[] firstIndex,
+               long[] extra, int[] hashSeeds, int[] hashSlots){
+        this.protocol = protocol;
+        this.strings = strings;
+        this.ids = ids;
+        this.kinds = kinds;
+        this.nameParts = nameParts;
+        this.nameOffsets = nameOffsets;
+        this.units = units;
+        this.limitMin = limitMin;
+        this.limitMax = limitMax;
+        this.factorK = factorK;
+        this.factorA = factorA;
+        this.count = count;
+        this.type = type;
+        this.firstIndex = firstIndex;
+        this.extra = extra;
+        this.hashSeeds = hashSeeds;
+        this.hashSlots = hashSlots;
+    }
+    /**
+     * @param protocol Protocol ID
+     * @return Table of the protocol, null for unknown protocols
+     */
+    static FieldTable forProtocol(int protocol){
+        switch(protocol){
+            case TelemetryData.PROTOCOL_DV4:
+                return FieldTables.DV4.TABLE;
+            case TelemetryData.PROTOCOL_SKYNAVIGATOR:
+                return FieldTables.SKYNAVIGATOR.TABLE;
+            default:
+                return null;
+        }
+    }
+    /**
+     * @return Number of rows
+     */
+    int size(){
+        return ids.length;
+    }
+    /**
+     * Finds the row of a declared field. If several rows have the same ID, the last one is found.
+     * @param id Field ID, or first element ID of a virtual array
+     * @return Row, -1 if no row has this ID
+     */
+    int rowOf(long id){
+        int slots = hashSlots.length;
+        if(slots == 0) return -1;
+        int seed = hashSeeds[hash(id, 0, slots)];
+        int row = hashSlots[seed < 0 ? -1 - seed : hash(id, seed, slots)];
+        return ids[row] == id ? row : -1;
+    }
+    /**
+     * Hash of the minimal perfect hash; fieldtables.gradle uses the same function.
+     * @return Slot from 0 to size - 1
+     */
+    static int hash(long id, int seed, int size){
+        long h = (id + seed) * 0x5851F42D4C957F2DL;
+        h ^= h >>> 31;
+        h *= 0x2545F4914F6CDD1DL;
+        return (int)((h >>> 33) % size);
+    }
+    /**
+     * Constructs the field of a row. The field registers itself in the container being built.
+     * @param row Row of the field
+     * @param ctx Context of the calling activity. Needed to access <strings.xml>
+     * @param resources Strings already looked up, by resource ID; shared by all rows of a build
+     * @return The new field
+     */
+    TelemetryData create(int row, Context ctx, HashMap<Integer, String> resources){
+        long id = ids[row];
+        String name = text(nameOffsets[2 * row], nameOffsets[2 * row + 1], ctx, resources);
+        switch(kinds[row]){
+            case NUMBER:
+                return new TelemetryDataNumber(id, name, limitMin[row], limitMax[row], strings[units[row]], factorK[row], factorA[row]);
+            case BITMASK:
+                return new TelemetryDataBitmask(id, name);
+            case TIMESTAMP:
+                return new TelemetryDataTimestamp(id, name);
+            case MS_UTC:
+                return new TelemetryDataMsUTC(id, name);
+            case ARRAY_DV4:
+                return new TelemetryDataArrayDV4(id, name, elementName(row, ctx, resources), count[row], type[row], firstIndex[row],
+                        limitMin[row], limitMax[row], strings[units[row]], factorK[row], factorA[row]);
+            case ARRAY_SKYNAV:
+                return new TelemetryDataArraySkyNav(id, name, elementName(row, ctx, resources), count[row], type[row], firstIndex[row],
+                        extra[row], limitMin[row], limitMax[row], strings[units[row]], factorK[row], factorA[row]);
+            case ARRAY_VIRTUAL:
+                return new TelemetryDataArrayVirtual(id, extra[row], name, elementName(row, ctx, resources), count[row],
+                        limitMin[row], limitMax[row], strings[units[row]], factorK[row], factorA[row]);
+            case GPS_DV4:
+                return new TelemetryDataGPS_DV4((int)id, name, ctx);
+            case GPS_SKYNAV:
+                return new TelemetryDataGPS_SkyNav((int)id, name, ctx);
+            case POWER_SUPPLY:
+                return new TelemetryDataPowerSupply((int)id, name, ctx);
+            default:
+                return null;
+        }
+    }
+    /**
+     * @return Name of the elements of an array row
+     */
+    private String elementName(int row, Context ctx, HashMap<Integer, String> resources){
+        return text(nameOffsets[2 * row + 1], nameOffsets[2 * row + 2], ctx, resources);
+    }
+    /**
+     * Joins name parts.
+     * @param from Index of the first part in {@link #nameParts}
+     * @param to Index after the last part
+     */
+    private String text(int from, int to, Context ctx, HashMap<Integer, String> resources){
+        if(from + 1 == to){
+            return part(nameParts[from], ctx, resources);
+        }
+        StringBuilder text = new StringBuilder();
+        for(int i = from; i < to; i++){
+            text.append(part(nameParts[i], ctx, resources));
+        }
+        return text.toString();
+    }
+    /**
+     * @return Text of a name part, looking up string resources only once per build
+     */
+    private String part(int part, Context ctx, HashMap<Integer, String> resources){
+        if(part < 0){
+            return strings[-1 - part];
+        }
+        String text = resources.get(part);
+        if(text == null){
+            text = ctx.getString(part);
+            resources.put(part, text);
+        }
+        return text;
+    }
+}
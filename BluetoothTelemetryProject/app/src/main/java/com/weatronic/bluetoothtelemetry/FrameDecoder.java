@@ -0,0 +1,219 @@
+package com.weatronic.bluetoothtelemetry;
+
+/**
+ * Assembles complete Bluetooth messages (frames) from raw chunks of the input stream.
+ * A frame starts with '$' and ends with "\r\n"; one chunk may contain several frames or only a part of one.
+ * Bytes are collected in one reusable buffer, so framing itself creates no objects.
+ * Every complete frame is passed to a {@link FrameListener} as offsets into that buffer,
+ * together with the time its last byte was received.
+ * The statistics are only written by the thread consuming the stream, and can be read from any thread, e.g. to be shown by the UI.
+ */
+public class FrameDecoder {
+    /**
+     * Receives complete frames.
+     */
+    public interface FrameListener {
+        /**
+         * Called for every complete frame. The data is only valid until the call returns.
+         * @param buffer Buffer containing the frame
+         * @param start Index of the leading '$'
+         * @param end Index after the last frame byte, "\r\n" excluded
+         * @param timeNs Time the end of the frame was received, in {@link System#nanoTime()} time base
+         */
+        void onFrame(byte[] buffer, int start, int end, long timeNs);
+    }
+    /**
+     * Longest frame that can be collected. Longer frames are dropped.
+     * A config message for every known field still fits comfortably.
+     */
+    public static final int MAX_FRAME_LENGTH = 4096;
+    /**
+     * Length of the window used to calculate {@link #getFramesPerSecond() frame rate}, in nanoseconds.
+     */
+    private static final long RATE_WINDOW_NS = 1000000000L;
+    /**
+     * Reusable buffer for the frame being collected.
+     */
+    private final byte[] frame = new byte[MAX_FRAME_LENGTH];
+    /**
+     * Number of bytes of the current frame collected so far.
+     */
+    private int length = 0;
+    /**
+     * True after a '$' has been found and until the end of that frame.
+     * While false, incoming bytes are skipped until the next '$'.
+     */
+    private boolean inFrame = false;
+    /**
+     * Receiver of complete frames.
+     */
+    private FrameListener listener;
+    /**
+     * Number of complete frames passed to the listener.
+     */
+    private volatile long framesTotal = 0;
+    /**
+     * Number of bytes consumed.
+     */
+    private volatile long bytesTotal = 0;
+    /**
+     * Number of bytes that did not end up in a complete frame:
+     * garbage between frames, frames cut off by a new '$' and frames too long to fit the buffer.
+     */
+    private volatile long bytesDropped = 0;
+    /**
+     * Number of frames cut off by a '$' before their end was received.
+     */
+    private volatile long framesTruncated = 0;
+    /**
+     * Number of frames dropped because they were longer than {@link #MAX_FRAME_LENGTH}.
+     */
+    private volatile long framesOverflowed = 0;
+    /**
+     * Start time of current frame rate window.
+     */
+    private volatile long windowStart = System.nanoTime();
+    /**
+     * Number of frames in current frame rate window.
+     */
+    private int windowFrames = 0;
+    /**
+     * Frame rate measured in the last complete window.
+     */
+    private volatile float framesPerSecond = 0;
+    /**
+     * Class constructor.
+     * @param listener Receiver of complete frames
+     */
+    public FrameDecoder(FrameListener listener){
+        this.listener = listener;
+    }
+    /**
+     * Processes the next chunk of the input stream, received just now.
+     * @see #consume(byte[], int, int, long)
+     */
+    public void consume(byte[] chunk, int offset, int count){
+        consume(chunk, offset, count, System.nanoTime());
+    }
+    /**
+     * Processes the next chunk of the input stream.
+     * Incomplete frames are kept and continued with the next chunk.
+     * @param chunk Bytes read from the stream
+     * @param offset Index of first byte to process
+     * @param count Number of bytes to process
+     * @param timeNs Time the chunk was received, in {@link System#nanoTime()} time base
+     */
+    public void consume(byte[] chunk, int offset, int count, long timeNs){
+        if(count <= 0) return;
+        bytesTotal += count;
+        int end = offset + count;
+        byte b;
+        for(int i = offset; i < end; i++){
+            b = chunk[i];
+            if(b == '$'){
+                //start of frame; an unfinished frame can not be completed anymore
+                if(inFrame){
+                    bytesDropped += length;
+                    framesTruncated++;
+                }
+                inFrame = true;
+                frame[0] = b;
+                length = 1;
+                continue;
+            }
+            if(!inFrame){
+                //garbage between frames, resynchronize on next '$'
+                bytesDropped++;
+                continue;
+            }
+            if(b == '\n'){
+                //end of frame, "\r" is not part of the frame
+                int frameEnd = length;
+                if(frameEnd > 0 && frame[frameEnd - 1] == '\r'){
+                    frameEnd--;
+                }
+                inFrame = false;
+                length = 0;
+                emit(frameEnd, timeNs);
+                continue;
+            }
+            if(length == MAX_FRAME_LENGTH){
+                //frame does not fit, drop and wait for next '$'
+                bytesDropped += length + 1;
+                framesOverflowed++;
+                inFrame = false;
+                length = 0;
+                continue;
+            }
+            frame[length++] = b;
+        }
+    }
+    /**
+     * Passes a complete frame to the listener and updates counters.
+     * The frame rate is measured by receive time, so it is not distorted by delays in processing.
+     * @param frameEnd Length of the frame in {@link #frame}
+     * @param timeNs Receive time of the frame
+     */
+    private void emit(int frameEnd, long timeNs){
+        framesTotal++;
+        windowFrames++;
+        long elapsed = timeNs - windowStart;
+        if(elapsed >= RATE_WINDOW_NS){
+            framesPerSecond = windowFrames * 1000000000.0f / elapsed;
+            windowFrames = 0;
+            windowStart = timeNs;
+        }
+        if(listener != null){
+            listener.onFrame(frame, 0, frameEnd, timeNs);
+        }
+    }
+    /**
+     * Drops any partially collected frame, e.g. after a reconnect.
+     */
+    public void reset(){
+        if(inFrame){
+            bytesDropped += length;
+        }
+        inFrame = false;
+        length = 0;
+    }
+    /**
+     * @return Frame rate measured over the last second. 0 if no frames arrived for longer than that.
+     */
+    public float getFramesPerSecond(){
+        if(System.nanoTime() - windowStart >= 2 * RATE_WINDOW_NS){
+            return 0;
+        }
+        return framesPerSecond;
+    }
+    /**
+     * @return Number of complete frames
+     */
+    public long getFramesTotal(){
+        return framesTotal;
+    }
+    /**
+     * @return Number of bytes consumed
+     */
+    public long getBytesTotal(){
+        return bytesTotal;
+    }
+    /**
+     * @return Number of bytes that were not part of a complete frame
+     */
+    public long getBytesDropped(){
+        return bytesDropped;
+    }
+    /**
+     * @return Number of frames cut off by the start of the next frame
+     */
+    public long getFramesTruncated(){
+        return framesTruncated;
+    }
+    /**
+     * @return Number of frames longer than {@link #MAX_FRAME_LENGTH}
+     */
+    public long getFramesOverflowed(){
+        return framesOverflowed;
+    }
+}
@@ -0,0 +1,142 @@
+package com.weatronic.bluetoothtelemetry;
+
+/**
+ * Converts ASCII hex digits in a byte buffer directly into numbers, without creating Strings.
+ * Values in data messages are little-endian: the first two digits are the lowest byte.
+ * Field IDs in config messages are written as plain (big-endian) hex numbers.
+ * Results match {@link Long#parseLong(String, int)}: only non-negative values can be produced,
+ * so -1 is used to signal an invalid input.
+ */
+final class HexDecoder {
+    /**
+     * Returned for input that {@link Long#parseLong(String, int)} would reject.
+     */
+    static final long INVALID = -1;
+    /**
+     * Nibble value for each possible byte; -1 for bytes that are not hex digits.
+     */
+    private static final byte[] NIBBLE = new byte[256];
+    static {
+        for(int i = 0; i < 256; i++){
+            NIBBLE[i] = -1;
+        }
+        for(int i = 0; i < 10; i++){
+            NIBBLE['0' + i] = (byte)i;
+        }
+        for(int i = 0; i < 6; i++){
+            NIBBLE['a' + i] = (byte)(10 + i);
+            NIBBLE['A' + i] = (byte)(10 + i);
+        }
+    }
+    /**
+     * Byte lanes for word-at-a-time conversion. See {@link #decodeWord(byte[], int)}
+     */
+    private static final long LANES_80 = 0x8080808080808080L;
+    private static final long LANES_0F = 0x0F0F0F0F0F0F0F0FL;
+    private static final long LANES_20 = 0x2020202020202020L;
+    private static final long LANES_01 = 0x0101010101010101L;
+
+    private HexDecoder(){
+    }
+    /**
+     * Decodes a little-endian hex value, e.g. "3412" -> 0x1234.
+     * Equivalent to reversing the byte order of the digits and calling Long.parseLong(hex, 16).
+     * 4-byte (8 digit) and 8-byte (16 digit) values, the most common sizes, are converted word-at-a-time.
+     * @param buf Buffer containing hex digits
+     * @param from Index of first digit
+     * @param to Index after last digit
+     * @return Decoded value or {@link #INVALID}
+     */
+    static long parseLittleEndian(byte[] buf, int from, int to){
+        int len = to - from;
+        if(len <= 0 || (len & 1) != 0){
+            //empty or incomplete byte
+            return INVALID;
+        }
+        if(len == 8){
+            return decodeWord(buf, from);
+        }
+        if(len == 16){
+            long low = decodeWord(buf, from);
+            long high = decodeWord(buf, from + 8);
+            if(low < 0 || high < 0 || high > 0x7FFFFFFFL){
+                //invalid digit or does not fit into a signed long
+                return INVALID;
+            }
+            return (high << 32) | low;
+        }
+        //byte by byte, starting with the most significant (last) byte
+        long value = 0;
+        int hi, lo;
+        for(int i = to - 2; i >= from; i -= 2){
+            hi = NIBBLE[buf[i] & 0xFF];
+            lo = NIBBLE[buf[i + 1] & 0xFF];
+            if((hi | lo) < 0 || value > (Long.MAX_VALUE >> 8)){
+                return INVALID;
+            }
+            value = (value << 8) | (hi << 4) | lo;
+        }
+        return value;
+    }
+    /**
+     * Decodes a plain hex number, e.g. "E905" -> 0xE905.
+     * Equivalent to Long.parseLong(hex, 16) for unsigned input.
+     * @param buf Buffer containing hex digits
+     * @param from Index of first digit
+     * @param to Index after last digit
+     * @return Decoded value or {@link #INVALID}
+     */
+    static long parseBigEndian(byte[] buf, int from, int to){
+        if(to <= from){
+            return INVALID;
+        }
+        long value = 0;
+        int nibble;
+        for(int i = from; i < to; i++){
+            nibble = NIBBLE[buf[i] & 0xFF];
+            if(nibble < 0 || value > (Long.MAX_VALUE >> 4)){
+                return INVALID;
+            }
+            value = (value << 4) | nibble;
+        }
+        return value;
+    }
+    /**
+     * Converts 8 hex digits (4 little-endian bytes) at once.
+     * The digits are packed into one long, one digit per byte, and validated and converted with
+     * lane-wise arithmetic instead of a lookup per digit.
+     * @param buf Buffer containing at least 8 digits starting at from
+     * @param from Index of first digit
+     * @return Unsigned 32-bit value or {@link #INVALID}
+     */
+    private static long decodeWord(byte[] buf, int from){
+        //digit i ends up in byte i
+        long w = (buf[from] & 0xFFL)
+                | (buf[from + 1] & 0xFFL) << 8
+                | (buf[from + 2] & 0xFFL) << 16
+                | (buf[from + 3] & 0xFFL) << 24
+                | (buf[from + 4] & 0xFFL) << 32
+                | (buf[from + 5] & 0xFFL) << 40
+                | (buf[from + 6] & 0xFFL) << 48
+                | (buf[from + 7] & 0xFFL) << 56;
+        if((w & LANES_80) != 0){
+            //not ASCII
+            return INVALID;
+        }
+        //with every byte below 0x80 the additions cannot carry into the next byte
+        //high bit of a lane is set if the byte is >= the bound
+        long digits = (w + 0x5050505050505050L) & ~(w + 0x4646464646464646L); //'0'..'9'
+        long lower = w | LANES_20;
+        long letters = (lower + 0x1F1F1F1F1F1F1F1FL) & ~(lower + 0x1919191919191919L); //'a'..'f', 'A'..'F'
+        if(((digits | letters) & LANES_80) != LANES_80){
+            return INVALID;
+        }
+        //low 4 bits of '0'..'9' are the value, letters need 9 more
+        long nibbles = (w & LANES_0F) + ((letters >>> 7) & LANES_01) * 9;
+        //pairs of digits into bytes: first digit of a pair is the high nibble
+        long bytes = ((nibbles & 0x00FF00FF00FF00FFL) << 4) | ((nibbles >>> 8) & 0x00FF00FF00FF00FFL);
+        //pack bytes together, first byte is the lowest
+        bytes = (bytes | (bytes >>> 8)) & 0x0000FFFF0000FFFFL;
+        return (bytes | (bytes >>> 16)) & 0xFFFFFFFFL;
+    }
+}
@@ -5,8 +5,8 @@ package com.weatronic.bluetoothtelemetry;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Matrix;
@@ -16,10 +16,14 @@ import android.graphics.RectF;
 //import android.util.Log;
 import android.support.annotation.NonNull;
 import android.util.Log;
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
 import android.widget.ArrayAdapter;
 import android.widget.ImageView;
+
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
@@ -45,6 +49,15 @@ abstract class Instrument extends ImageView implements Observer{
      * Id of field to take data from
      */
     long fieldId = 0;
+    /**
+     * Slots of the fields this instrument shows. The instrument is only redrawn if one of them changed.
+     * See {@link #subscribe(long)}
+     */
+    private int[] sourceSlots = new int[0];
+    /**
+     * True if the instrument shows all fields and is redrawn on every change.
+     */
+    private boolean allSources = false;
     /**
      * Id of instrument type. Needed to determine creation process.
      */
@@ -57,6 +70,10 @@ abstract class Instrument extends ImageView implements Observer{
      * Instance of Telemetry Data Container to access telemetry fields.
      */
     TelemetryDataContainer telemetry = TelemetryDataContainer.getInstance(ctx);
+    /**
+     * Values of the fields, as of the last update. Those of the default session, as long as its fields are {@link #telemetry}.
+     */
+    ValueStore values = TelemetrySession.getInstance(ctx).getValues();
     /**
      * Instance of Parser to track when telemetry data is updated.
      */
@@ -82,6 +99,27 @@ abstract class Instrument extends ImageView implements Observer{
      * List of text fields with coordinates.
      */
     Map<String, textField> textFields = new HashMap<>();
+    /**
+     * Text fields in the order they are drawn. Iterated by index, so that drawing creates no iterator.
+     */
+    private final ArrayList<textField> drawnTextFields = new ArrayList<>();
+    /**
+     * Decimal separator of the locale, used by {@link #formatValue(TelemetryDataSimple, TextBuffer)}.
+     */
+    final char decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+    /**
+     * Static parts of the instrument (background image and labels) as drawn at the current size.
+     * Null if not drawn yet, or after a change of size or configuration. See {@link #hasStaticLayer()}.
+     */
+    private Bitmap staticLayer = null;
+    /**
+     * Drawable resource ID of the background image, 0 for none. See {@link #setBackgroundImage(int)}.
+     */
+    private int backgroundResource = 0;
+    /**
+     * Background image from the {@link BitmapCache}, decoded for the current size. Null while the instrument has no size or is detached.
+     */
+    private Bitmap background = null;
     /**
      * Class constructor.
      *
@@ -115,47 +153,238 @@ abstract class Instrument extends ImageView implements Observer{
     /**
      * Draws the instrument.
      * The common base for all instruments is text fields: this function draws each text field.
+     * Instruments with a {@link #hasStaticLayer() static layer} draw the layer and only the text fields that change.
      */
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
-        super.onDraw(canvas);
-        paint.setColor(Color.GRAY);
         height = this.getHeight();
         width = this.getWidth();
+        paint.setColor(Color.GRAY);
         paint.setTextSize(width / 15);
         paint.setStrokeWidth(2);
         paint.setAntiAlias(true);
-        //draw all text fields
-        Iterator it = textFields.entrySet().iterator();
+        if(hasStaticLayer()){
+            if(staticLayer == null){
+                drawStaticLayer();
+            }
+            if(staticLayer != null){
+                canvas.drawBitmap(staticLayer, 0, 0, null);
+                drawTextFields(canvas, true);
+                return;
+            }
+            //no layer, draw everything
+        }
+        super.onDraw(canvas);
+        drawTextFields(canvas, false);
+    }
+    /**
+     * Draws the text fields.
+     * @param onlyChanging True to draw only the fields whose text is {@link textField#edit() edited}
+     */
+    private void drawTextFields(Canvas canvas, boolean onlyChanging){
         textField nextField;
-        while (it.hasNext()) {
-            Map.Entry pair = (Map.Entry)it.next();
-            nextField = (textField)pair.getValue();
-            paint.getTextBounds(nextField.value, 0, nextField.value.length(), textBounds);
-            canvas.drawText(nextField.value, (float)width * nextField.x - textBounds.width() / 2, (float)height * nextField.y, paint);
+        for(int i = 0; i < drawnTextFields.size(); i++){
+            nextField = drawnTextFields.get(i);
+            if(onlyChanging && !nextField.changing) continue;
+            canvas.drawText(nextField.value.chars(), 0, nextField.value.length(),
+                    (float)width * nextField.x - nextField.getHalfWidth(), (float)height * nextField.y, paint);
+        }
+    }
+    /**
+     * Instruments whose background and labels do not change return true, so that these are drawn once into a bitmap
+     * (per size and configuration) and each frame only draws that bitmap and the moving parts.
+     * @return True to use a static layer
+     */
+    protected boolean hasStaticLayer(){
+        return false;
+    }
+    /**
+     * Draws the background image and the text fields that are never {@link textField#edit() edited} into {@link #staticLayer}.
+     * The layer is a full-size ARGB_8888 bitmap per instrument, taken from the {@link BitmapCache} budget.
+     * Leaves the layer null if the instrument has no size yet or the layer does not fit the budget.
+     */
+    private void drawStaticLayer(){
+        if(width <= 0 || height <= 0) return;
+        staticLayer = BitmapCache.getInstance().createLayer(width, height);
+        if(staticLayer == null){
+            //draw directly instead
+            return;
+        }
+        Canvas layer = new Canvas(staticLayer);
+        super.onDraw(layer);
+        textField nextField;
+        for(int i = 0; i < drawnTextFields.size(); i++){
+            nextField = drawnTextFields.get(i);
+            if(nextField.changing) continue;
+            layer.drawText(nextField.value.chars(), 0, nextField.value.length(),
+                    (float)width * nextField.x - nextField.getHalfWidth(), (float)height * nextField.y, paint);
+        }
+    }
+    /**
+     * Drops the static layer and redraws the instrument, which draws the layer again if it fits the budget.
+     * The layer is not recycled, the last frame may still use it.
+     */
+    protected void invalidateStaticLayer(){
+        if(staticLayer != null){
+            BitmapCache.getInstance().releaseLayer(staticLayer);
+            staticLayer = null;
+            invalidate();
         }
     }
+    /**
+     * The static layer has the old size, draw it again.
+     */
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh){
+        super.onSizeChanged(w, h, oldw, oldh);
+        invalidateStaticLayer();
+        loadImages();
+    }
+    /**
+     * Images are released while the instrument is not shown (e.g. while the grid is rebuilt), take them again.
+     */
+    @Override
+    protected void onAttachedToWindow(){
+        super.onAttachedToWindow();
+        loadImages();
+    }
+    /**
+     * Releases the images, an instrument removed from the screen does not hold bitmaps.
+     */
+    @Override
+    protected void onDetachedFromWindow(){
+        releaseImages();
+        super.onDetachedFromWindow();
+    }
+    /**
+     * Sets the background image. It is taken from the {@link BitmapCache} in the size of the instrument once it is laid out.
+     * @param id Drawable resource ID
+     */
+    protected void setBackgroundImage(int id){
+        backgroundResource = id;
+        loadImages();
+    }
+    /**
+     * Takes the images of the instrument from the {@link BitmapCache} for the current size.
+     * Instruments with more images override this and call it.
+     */
+    protected void loadImages(){
+        if(backgroundResource == 0) return;
+        background = reloadImage(background, backgroundResource);
+        setImageBitmap(background);
+        invalidateStaticLayer();
+    }
+    /**
+     * Returns the images of the instrument to the {@link BitmapCache}.
+     * Instruments with more images override this and call it.
+     */
+    protected void releaseImages(){
+        setImageDrawable(null);
+        BitmapCache.getInstance().release(background);
+        background = null;
+        invalidateStaticLayer();
+    }
+    /**
+     * Takes an image from the {@link BitmapCache} in the current size and releases the previous one.
+     * @param previous Image taken before, may be null
+     * @param id Drawable resource ID
+     * @return New image; the previous one if the instrument has no size yet; null if it could not be decoded
+     */
+    protected Bitmap reloadImage(Bitmap previous, int id){
+        if(getWidth() <= 0 || getHeight() <= 0) return previous;
+        //acquire before release, so that an image of the same size stays cached
+        Bitmap image = BitmapCache.getInstance().acquire(getResources(), id, getWidth(), getHeight());
+        BitmapCache.getInstance().release(previous);
+        return image;
+    }
+    /**
+     * The background image and labels may differ after rotation or a change of locale, draw them again.
+     */
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig){
+        super.onConfigurationChanged(newConfig);
+        invalidateStaticLayer();
+    }
     /**
      * Initializes a text field.
      * @param name Name of the field
      * @param coordX - X coordinate (fraction of width)
      * @param coordY - Y coordinate (fraction of height)
+     * @return The text field, to change its text or position later without looking it up
      */
-    public void defineTextField(String name, float coordX, float coordY){
-        new textField(name, coordX, coordY);
+    public textField defineTextField(String name, float coordX, float coordY){
+        return new textField(name, coordX, coordY);
     }
     /**
-     * Fires when the {@link Parser} processes a new data message.
-     * {@link #invalidate()} tells the instrument it has to be redrawn.
+     * Fires when the {@link Parser} publishes new data.
+     * {@link #invalidate()} tells the instrument it has to be redrawn; this is skipped if none of its fields changed.
+     * @param data {@link ValueStore} of this update
      */
     public void update(Observable notifier, Object data){
+        if(!takeValues(data)){
+            return;
+        }
+        if(data instanceof ValueStore && !sourceChanged(values.changes)){
+            return;
+        }
         this.invalidate();
     }
+    /**
+     * Takes the values of an update for drawing.
+     * @param data {@link ValueStore} of this update
+     * @return False if the values belong to the fields of another protocol, which this instrument does not show
+     */
+    protected boolean takeValues(Object data){
+        if(!(data instanceof ValueStore)) return true;
+        ValueStore update = (ValueStore)data;
+        if(update.catalog != telemetry){
+            //protocol switched, the instrument is about to be removed
+            return false;
+        }
+        values = update;
+        return true;
+    }
+    /**
+     * Registers a field this instrument shows. Subfields of a composite field are included.
+     * @param id ID of the field
+     */
+    protected void subscribe(long id){
+        TelemetryData source = telemetry.getFieldById(id);
+        if(source == null) return;
+        int count = 1;
+        if(source instanceof TelemetryDataComposite){
+            count += ((TelemetryDataComposite)source).subfields.size();
+        }
+        int[] slots = new int[sourceSlots.length + count];
+        System.arraycopy(sourceSlots, 0, slots, 0, sourceSlots.length);
+        slots[sourceSlots.length] = source.slot;
+        for(int i = 1; i < count; i++){
+            slots[sourceSlots.length + i] = ((TelemetryDataComposite)source).subfields.get(i - 1).slot;
+        }
+        sourceSlots = slots;
+    }
+    /**
+     * Makes the instrument redraw on any change, for instruments that show all fields.
+     */
+    protected void subscribeAll(){
+        allSources = true;
+    }
+    /**
+     * @return True if any field this instrument shows is part of the changes
+     */
+    private boolean sourceChanged(ChangedFields changes){
+        if(allSources) return true;
+        for(int slot : sourceSlots){
+            if(changes.contains(slot)) return true;
+        }
+        return false;
+    }
     /**
      * Clears instrument data to save memory.
      */
     public void destroy(){
         parser.deleteObserver(this);
+        releaseImages();
     }
     /**
      * Builds a list of field names to choose from when creating an instrument.
@@ -169,16 +398,14 @@ abstract class Instrument extends ImageView implements Observer{
      */
     abstract public boolean fieldUsable(String name);
     /**
-     * Formats a value to 2 decimal places max.
-     * @param val Unformatted value
-     * @return Formatted string
+     * Formats a value to 2 decimal places max, as <code>String.format("%.2f")</code> would, without creating strings.
+     * @param field Field whose value is formatted
+     * @param out Text to append to
+     * @return The text
+     * @see TelemetryDataSimple#appendValue(ValueStore, TextBuffer, char)
      */
-    protected String formatValue(Object val){
-        try{
-            return String.format("%.2f", (float)val);
-        }catch(Exception e){
-            return String.format("%d", (int)val);
-        }
+    protected TextBuffer formatValue(TelemetryDataSimple field, TextBuffer out){
+        return field.appendValue(values, out, decimalSeparator);
     }
     /**
      * A class representing a text field.
@@ -195,114 +422,290 @@ abstract class Instrument extends ImageView implements Observer{
         /**
          * Text stored in field
          */
-        String value;
+        final TextBuffer value = new TextBuffer(16);
+        /**
+         * True once the text has been {@link #edit() edited}; such fields are not part of the static layer.
+         */
+        boolean changing = false;
+        /**
+         * Half the width of {@link #value} as last measured, see {@link #getHalfWidth()}.
+         */
+        private float halfWidth;
+        /**
+         * Text size {@link #halfWidth} was measured at, 0 if the text changed since.
+         */
+        private float measuredTextSize = 0;
         /**
          * Class constructor.
          */
         public textField(String name, float coordX, float coordY){
             //if a field is being redefined, delete old
-            if(textFields.get(name) != null){
-                textFields.remove(name);
+            textField old = textFields.remove(name);
+            if(old != null){
+                drawnTextFields.remove(old);
             }
-            this.value = textFieldValues.get(name);
+            this.value.append(textFieldValues.get(name));
             this.x = coordX;
             this.y = coordY;
             textFields.put(name, this);
+            drawnTextFields.add(this);
+            invalidateStaticLayer();
+        }
+        /**
+         * Starts a new text. The caller appends to the returned text; it is measured again when drawn.
+         * @return The emptied text
+         */
+        TextBuffer edit(){
+            if(!changing){
+                //was drawn as part of the static layer
+                changing = true;
+                invalidateStaticLayer();
+            }
+            measuredTextSize = 0;
+            return value.clear();
+        }
+        /**
+         * Measures the text only if it or the text size changed, so static labels are measured once.
+         * @return Half the width of the text at the current text size of {@link #paint}
+         */
+        float getHalfWidth(){
+            if(measuredTextSize != paint.getTextSize()){
+                paint.getTextBounds(value.chars(), 0, value.length(), textBounds);
+                halfWidth = textBounds.width() / 2;
+                measuredTextSize = paint.getTextSize();
+            }
+            return halfWidth;
         }
     }
 }
 /**
  * Sample instrument: a text list of all recieved values.
  * A rather special instrument used for testing.
+ * The list is kept as rows, one pre-formatted line per field: a row is formatted again only when its value changed,
+ * and only rows on screen are formatted and drawn. The list scrolls by dragging, without formatting again.
  */
 class PlainTextListInstrument extends Instrument{
+    /**
+     * Y-coordinate of the first line (pixels).
+     */
+    private static final int TOP = 20;
+    /**
+     * One line of the list: a simple field, or the name of a composite field above its subfields.
+     */
+    private static class Row{
+        /**
+         * Field shown in this row, null for the name of a composite field.
+         */
+        final TelemetryDataSimple field;
+        /**
+         * Formatted line.
+         */
+        final TextBuffer text = new TextBuffer(48);
+        /**
+         * Raw value {@link #text} was formatted from.
+         */
+        long raw;
+        /**
+         * True if {@link #text} has been formatted.
+         */
+        boolean formatted = false;
+
+        Row(TelemetryDataSimple field){
+            this.field = field;
+        }
+    }
+    /**
+     * Rows of the current config.
+     */
+    private final ArrayList<Row> rows = new ArrayList<>();
+    /**
+     * Config {@link #rows} were built for, see {@link Parser#configFields}.
+     */
+    private long[] rowsConfig = null;
+    /**
+     * Distance the list is scrolled up by (pixels).
+     */
+    private int scrollOffset = 0;
+    /**
+     * First and last row drawn last time.
+     */
+    private int firstVisible = 0, lastVisible = -1;
+    /**
+     * Distance a touch moves before it scrolls instead of clicking (pixels).
+     */
+    private final int touchSlop;
+    /**
+     * Y-coordinate of the touch when it went down and when it last moved.
+     */
+    private float touchStartY, lastTouchY;
+    /**
+     * True while a touch is scrolling the list.
+     */
+    private boolean dragging = false;
     /**
      * Basic constructor.
      * @see Instrument#Instrument(Context, int)
      */
     public PlainTextListInstrument(Context ctx){
         super(ctx, INSTRUMENT_FULL_LIST);
+        subscribeAll();
+        ViewConfiguration configuration = ViewConfiguration.get(ctx);
+        touchSlop = configuration == null ? 8 : configuration.getScaledTouchSlop();
     }
     /**
-     * Draws the one large text field.
-     * @see #drawMultiLine(Canvas, String, int, int, int)
+     * Redraws only if the config changed or a row on screen changed.
+     * @param data {@link ValueStore} of this update
      */
     @Override
-    protected void onDraw(@NonNull Canvas canvas) {
-        super.onDraw(canvas);
-        int textSize = width / 30;
-        paint.setTextSize(textSize);
-        paint.setStrokeWidth(2);
-        paint.setAntiAlias(true);
-        drawMultiLine(canvas, printData(), 0, 20, textSize);
+    public void update(Observable notifier, Object data){
+        if(!takeValues(data)){
+            return;
+        }
+        if(data instanceof ValueStore && parser.configFields == rowsConfig && !visibleRowChanged(values.changes)){
+            return;
+        }
+        this.invalidate();
     }
     /**
-     * Draws text line by line.
-     * @param str The big string to print
-     * @see #printData()
-     * @param x X-coordinate (pixels)
-     * @param y Y-coordinate (pixels)
-     * @param textSize Font size
+     * @return True if the field of any row drawn last time is part of the changes
      */
-    private void drawMultiLine(Canvas canvas, String str, int x, int y, int textSize){
-        int curY = y;
-        String[] lines = str.split("\n");
-        for (String line : lines) {
-            canvas.drawText(line, x, curY, paint);
-            curY += textSize * 1.1;
+    private boolean visibleRowChanged(ChangedFields changes){
+        Row row;
+        for(int i = firstVisible; i <= lastVisible && i < rows.size(); i++){
+            row = rows.get(i);
+            if(row.field != null && changes.contains(row.field.slot)) return true;
         }
+        return false;
     }
     /**
-     * Builds a string for a simple field
-     * Format: fieldname - value
-     * @param in Simple Telemetry Field to print from
-     * @return One line of data for simple field
+     * Builds one row per configured simple field, and a name row followed by one row per subfield for composite fields.
      */
-    private String printDataSimple(TelemetryData in){
-        if (in == null) return "";
-        String str = "";
-        TelemetryDataSimple val = (TelemetryDataSimple)in;
-        if(val.value != null){
-            str = val.name + " (" + Long.toHexString(val.ID).toUpperCase() + ") = " + val.value + val.units + " (" + val.valueRaw + ")\n";
+    private void buildRows(long[] config){
+        rows.clear();
+        TelemetryData val;
+        TelemetryData child;
+        TelemetryDataComposite comp;
+        Row name;
+        for(int i = 1; i < config.length; i++) {
+            val = telemetry.getFieldById(config[i]);
+            if(val instanceof TelemetryDataSimple){
+                rows.add(new Row((TelemetryDataSimple)val));
+            }else if(val instanceof TelemetryDataComposite){
+                comp = (TelemetryDataComposite)val;
+                name = new Row(null);
+                name.text.append(comp.name);
+                name.formatted = true;
+                rows.add(name);
+                for(int c = 0; c < comp.children.size(); c++){
+                    child = telemetry.getFieldById(comp.children.get(c));
+                    if(child instanceof TelemetryDataSimple){
+                        rows.add(new Row((TelemetryDataSimple)child));
+                    }
+                }
+            }
         }
-        return str;
+        rowsConfig = config;
     }
     /**
-     * Builds a string for a composite field
-     * Format: fieldname1 - value1, fieldname2 - value2, ..., fieldnameN - valueN
-     * @param in Composite Telemetry Field to print from
-     * @return Several lines of data for every subfield
+     * Formats the line of a simple field, unless its value is unchanged since the last time.
+     * Format: fieldname (ID) = value (raw value)
+     * Numbers are formatted by {@link #formatValue(TelemetryDataSimple, TextBuffer)}, times and dates by the field.
      */
-    private String printDataComposite(TelemetryData in){
-        if(in == null) return "";
-        TelemetryDataComposite comp = (TelemetryDataComposite)in;
-        String str = comp.name + "\n";
-        TelemetryDataSimple val;
-        for(int i = 0; i < comp.children.size(); i++){
-            val = (TelemetryDataSimple)telemetry.getFieldById(comp.children.get(i));
-            str += printDataSimple(val);
+    private void formatRow(Row row){
+        TelemetryDataSimple val = row.field;
+        long raw = val.getRaw(values);
+        if(row.formatted && raw == row.raw) return;
+        row.text.clear().append(val.name).append(" (").appendHex(val.ID).append(") = ");
+        if(val instanceof TelemetryDataNumber){
+            formatValue(val, row.text);
+        }else{
+            //formatted once per value by the field
+            row.text.append(val.getText(values));
         }
-        return str;
+        row.text.append(val.units).append(" (").append(raw).append(')');
+        row.raw = raw;
+        row.formatted = true;
     }
     /**
-     * Builds a large string representing all known data.
-     * Format: fieldname1 - value1, fieldname2 - value2, ..., fieldnameN - valueN
-     * @return Data to print in string form
+     * @return Height of one line (pixels)
      */
-    private String printData(){
-        if(parser.configFields == null) return null;
-        int size = parser.configFields.length;
-        TelemetryData val;
-        String text = "";
-        for(int i = 1; i < size; i++) {
-            val = telemetry.getFieldById(parser.configFields[i]);
-            if(val instanceof TelemetryDataSimple){
-                text = text.concat(printDataSimple(val));
-            }else{
-                text = text.concat(printDataComposite(val));
+    private int getLineHeight(){
+        return Math.max(1, (int)(width / 30 * 1.1));
+    }
+    /**
+     * Keeps the scroll offset between the top and the end of the list.
+     */
+    private void clampScroll(){
+        int max = TOP + rows.size() * getLineHeight() - getHeight();
+        if(scrollOffset > max) scrollOffset = max;
+        if(scrollOffset < 0) scrollOffset = 0;
+    }
+    /**
+     * Draws the rows on screen line by line. Rows are built again when the config changed.
+     */
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        int textSize = width / 30;
+        paint.setTextSize(textSize);
+        paint.setStrokeWidth(2);
+        paint.setAntiAlias(true);
+        long[] config = parser.configFields;
+        if(config == null) return;
+        if(config != rowsConfig){
+            buildRows(config);
+        }
+        clampScroll();
+        int lineHeight = getLineHeight();
+        //rows whose line reaches into the instrument
+        firstVisible = Math.max(0, (scrollOffset - TOP) / lineHeight);
+        lastVisible = Math.min(rows.size() - 1, (scrollOffset + height - TOP) / lineHeight + 1);
+        Row row;
+        for(int i = firstVisible; i <= lastVisible; i++){
+            row = rows.get(i);
+            if(row.field != null){
+                formatRow(row);
             }
+            canvas.drawText(row.text.chars(), 0, row.text.length(), 0, TOP + i * lineHeight - scrollOffset, paint);
         }
-        return text;
+    }
+    /**
+     * Scrolls the list by dragging. Touches that do not move are left to the click and long click handlers.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event){
+        switch(event.getActionMasked()){
+            case MotionEvent.ACTION_DOWN:
+                touchStartY = event.getY();
+                lastTouchY = touchStartY;
+                dragging = false;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if(!dragging && Math.abs(event.getY() - touchStartY) > touchSlop){
+                    //a scroll, not a click
+                    dragging = true;
+                    cancelLongPress();
+                }
+                if(dragging){
+                    scrollOffset -= (int)(event.getY() - lastTouchY);
+                    lastTouchY = event.getY();
+                    clampScroll();
+                    invalidate();
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                if(dragging){
+                    dragging = false;
+                    //end the touch without a click
+                    event.setAction(MotionEvent.ACTION_CANCEL);
+                }
+                break;
+            default:
+                dragging = false;
+                break;
+        }
+        return super.onTouchEvent(event);
     }
 
     public ArrayAdapter<String> getAllowedFields(){
@@ -327,7 +730,7 @@ class NeedlePointerInstrument extends Instrument{
      */
     TelemetryDataNumber field;
     /**
-     * Image of needle
+     * Image of needle, from the {@link BitmapCache}. Null while the instrument has no size.
      */
     public Bitmap needleBitMap = null;
     /**
@@ -345,11 +748,15 @@ class NeedlePointerInstrument extends Instrument{
     /**
      * Rectangle representing needle image in initial size.
      */
-    RectF src;
+    RectF src = new RectF();
     /**
      * Rectangle representing needle image in required size (size of instrument).
      */
     RectF trg = new RectF(0,0, width, height);
+    /**
+     * Text field showing the current value.
+     */
+    private textField valueField;
     /**
      * Needle angle corresponding to lowest possible telemetry value.
      */
@@ -362,24 +769,26 @@ class NeedlePointerInstrument extends Instrument{
      * @return Needle angle corresponding to current telemetry value.
      */
     private float getAngle(){
-        float valRelative;
-        try {
-            valRelative = ((float) field.value - (int) field.limitMin);
-        }catch(Exception e){
-            valRelative = ((int) field.value - (int) field.limitMin);
-        }
-        float frac = valRelative / ((int) field.limitMax - (int) field.limitMin);
+        float valRelative = field.getFloat(values) - field.limitMin.intValue();
+        float frac = valRelative / (field.limitMax.intValue() - field.limitMin.intValue());
         return minAngle + (maxAngle - minAngle) * frac;
     }
+    /**
+     * The dashboard and scale labels are static, only the needle and value change.
+     */
+    @Override
+    protected boolean hasStaticLayer(){
+        return true;
+    }
     /**
      * Draws needle in addition to background and text fields.
      * @see Instrument#onDraw(Canvas)
      */
     @Override
     protected void onDraw(@NonNull Canvas canvas){
-        textFieldValues.put("value", formatValue(field.value) + field.units);
-        defineTextField("value", 0.5f, 0.66f);
+        formatValue(field, valueField.edit()).append(field.units);
         super.onDraw(canvas);
+        if(needleBitMap == null) return;
         trg.set(0, 0, width, height);
         centerMatrix.setRectToRect(src, trg, Matrix.ScaleToFit.CENTER);
         rotateMatrix.setRotate(getAngle(), width / 2, height / 2);
@@ -391,7 +800,7 @@ class NeedlePointerInstrument extends Instrument{
      * @see Instrument#defineTextField(String, float, float)
      */
     private void initFields(){
-        defineTextField("value", 0.5f, 0.66f);
+        valueField = defineTextField("value", 0.5f, 0.66f);
         defineTextField("name", 0.5f, 0.87f);
         defineTextField("min", 0.25f, 0.74f);
         defineTextField("max", 0.75f, 0.74f);
@@ -407,10 +816,10 @@ class NeedlePointerInstrument extends Instrument{
      */
     public NeedlePointerInstrument(Context ctx, long id){
         super(ctx, INSTRUMENT_NEEDLE);
-        setImageResource(R.drawable.board);
+        setBackgroundImage(R.drawable.board);
         this.fieldId = id;
         this.field = (TelemetryDataNumber)telemetry.getFieldById(fieldId);
-        textFieldValues.put("value", formatValue(field.value) + field.units);
+        subscribe(fieldId);
         textFieldValues.put("name", field.name);
         int min = (int)field.limitMin;
         int max = (int)field.limitMax;
@@ -427,8 +836,30 @@ class NeedlePointerInstrument extends Instrument{
             textFieldValues.put("mid3", "" + (min + step * 3.0f));
         }
         initFields();
-        needleBitMap = BitmapFactory.decodeResource(getResources(), R.drawable.arrow);
-        src = new RectF(0,0,needleBitMap.getWidth(), needleBitMap.getHeight());
+        formatValue(field, valueField.edit()).append(field.units);
+    }
+    /**
+     * Takes the needle image in addition to the background.
+     * @see Instrument#loadImages()
+     */
+    @Override
+    protected void loadImages(){
+        super.loadImages();
+        needleBitMap = reloadImage(needleBitMap, R.drawable.arrow);
+        if(needleBitMap != null){
+            //the cached image may be downsampled
+            src.set(0, 0, needleBitMap.getWidth(), needleBitMap.getHeight());
+        }
+    }
+    /**
+     * Returns the needle image in addition to the background.
+     * @see Instrument#releaseImages()
+     */
+    @Override
+    protected void releaseImages(){
+        super.releaseImages();
+        BitmapCache.getInstance().release(needleBitMap);
+        needleBitMap = null;
     }
     /**
      * @return Fields to be shown in the list when creating an instrument.
@@ -437,9 +868,8 @@ class NeedlePointerInstrument extends Instrument{
     public ArrayAdapter<String> getAllowedFields(){
         ArrayAdapter<String> adp = new ArrayAdapter<>(ctx, R.layout.field_name);
         TelemetryData nextField;
-        for (Object o : TelemetryData.fields.entrySet()) {
-            Map.Entry pair = (Map.Entry) o;
-            nextField = (TelemetryData) pair.getValue();
+        for (int i = 0; i < telemetry.fields.size(); i++) {
+            nextField = telemetry.fields.valueAt(i);
             //numeric fields and composite fields that may contain numeric subfields
             if (nextField instanceof TelemetryDataComposite || (nextField instanceof TelemetryDataNumber && (nextField.parent == null || nextField.parent.showingChildren))) {
                 adp.add(nextField.name);
@@ -456,16 +886,6 @@ class NeedlePointerInstrument extends Instrument{
         TelemetryData field = telemetry.getFieldByName(name);
         return field instanceof TelemetryDataNumber;
     }
-    /**
-     * Cleans up instrument resources.
-     * Mainly needed to destroy reference to bitmap to avoid memory overflow.
-     */
-    @Override
-    public void destroy(){
-        super.destroy();
-        //destroy bitmap reference to avoid out of memory error
-        needleBitMap = null;
-    }
 }
 /**
  * Sample instrument: vertical bar.
@@ -480,6 +900,24 @@ class BarInstrument extends Instrument{
      * Graphical element: vertical bar.
      */
     RectF bar;
+    /**
+     * Text field showing the current value, moves along with the top of the bar.
+     */
+    private textField valueField;
+    /**
+     * Bar colors from lowest (red) over middle (yellow) to highest (green) value, see {@link #getBarColor()}.
+     */
+    private static final int[] barColors = new int[513];
+    static{
+        int red, green;
+        for(int i = 0; i < barColors.length; i++){
+            //the lower, the more red
+            red = Math.min(barColors.length - 1 - i, 255);
+            //the higher, the more green
+            green = Math.min(i, 255);
+            barColors[i] = 0xAA000000 | red << 16 | green << 8;
+        }
+    }
     /**
      * Draws needle in addition to background and text fields.
      * @see Instrument#onDraw(Canvas)
@@ -487,8 +925,8 @@ class BarInstrument extends Instrument{
     @Override
     protected void onDraw(@NonNull Canvas canvas){
         //move value text field to be near top of bar
-        textFieldValues.put("value", formatValue(field.value) + field.units);
-        defineTextField("value", 0.9f, 0.9f * (1.0f - getRelativeBarSize()));
+        formatValue(field, valueField.edit()).append(field.units);
+        valueField.y = 0.9f * (1.0f - getRelativeBarSize());
         super.onDraw(canvas);
         //calculate bar height based on telemetry value
         float maxBarHeight = height * 0.9f;
@@ -502,37 +940,18 @@ class BarInstrument extends Instrument{
      * @return Bar height corresponding to current telemetry value.
      */
     private float getRelativeBarSize(){
-        float valRelative;
-        try {
-            valRelative = ((float) field.value - (int) field.limitMin);
-        }catch(Exception e){
-            valRelative = ((int) field.value - (int) field.limitMin);
-        }
-        return valRelative / ((int) field.limitMax - (int) field.limitMin);
+        float valRelative = field.getFloat(values) - field.limitMin.intValue();
+        return valRelative / (field.limitMax.intValue() - field.limitMin.intValue());
     }
     /**
      * @return Bar color corresponding to current telemetry value. Red for lowest, yellow for middle, green for highest.
      */
     private int getBarColor(){
-        //the lower, the more red
-        int red = (int)(512 * (1.0f - getRelativeBarSize()));
-        if(red > 255) red = 255;
-        if(red < 0) red = 0;
-        //the higher, the more green
-        int green = (int)(512 * getRelativeBarSize());
-        if(green > 255) green = 255;
-        if(green < 0) green = 0;
-        //make sure the color is coded in 2 bytes even for low values
-        String redStr = Integer.toHexString(red).toUpperCase();
-        if(redStr.length() < 2){
-            redStr = "0"+redStr;
-        }
-        String greenStr = Integer.toHexString(green).toUpperCase();
-        if(greenStr.length() < 2){
-            greenStr = "0"+greenStr;
-        }
-        //Integer.parseInt won't parse 8 byte strings with 1st byte >7
-        return (int)Long.parseLong("AA" + redStr + greenStr + "00", 16);
+        int i = (int)(512 * getRelativeBarSize());
+        //out of range values get the end colors
+        if(i > 512) i = 512;
+        if(i < 0) i = 0;
+        return barColors[i];
     }
     /**
      * Initializes each text field.
@@ -542,6 +961,8 @@ class BarInstrument extends Instrument{
         defineTextField("name", 0.5f, 0.97f);
         defineTextField("min", 0.1f, 0.85f);
         defineTextField("max", 0.1f, 0.05f);
+        valueField = defineTextField("value", 0.9f, 0.9f * (1.0f - getRelativeBarSize()));
+        formatValue(field, valueField.edit()).append(field.units);
     }
     /**
      * Class constructor.
@@ -553,8 +974,8 @@ class BarInstrument extends Instrument{
         super(ctx, INSTRUMENT_BAR);
         this.fieldId = id;
         this.field = (TelemetryDataNumber)telemetry.getFieldById(fieldId);
+        subscribe(fieldId);
         bar = new RectF(0, 0, 0, 0);
-        textFieldValues.put("value", formatValue(field.value) + field.units);
         textFieldValues.put("name", field.name);
         textFieldValues.put("min", "" + (int)field.limitMin);
         textFieldValues.put("max", "" + (int)field.limitMax);
@@ -567,9 +988,8 @@ class BarInstrument extends Instrument{
     public ArrayAdapter<String> getAllowedFields(){
         ArrayAdapter<String> adp = new ArrayAdapter<>(ctx, R.layout.field_name);
         TelemetryData nextField;
-        for (Object o : TelemetryData.fields.entrySet()) {
-            Map.Entry pair = (Map.Entry) o;
-            nextField = (TelemetryData) pair.getValue();
+        for (int i = 0; i < telemetry.fields.size(); i++) {
+            nextField = telemetry.fields.valueAt(i);
             //numeric fields and composite fields that may contain numeric subfields
             if (nextField instanceof TelemetryDataComposite || (nextField instanceof TelemetryDataNumber && (nextField.parent == null || nextField.parent.showingChildren))) {
                 adp.add(nextField.name);
@@ -596,6 +1016,21 @@ class GPSCoordinatesInstrument extends Instrument{
      * Field to take data from
      */
     TelemetryData field;
+    /**
+     * Text fields showing the current coordinates.
+     */
+    private textField longField, latField;
+    /**
+     * Decimal places of the coordinates, about 1 m.
+     */
+    private static final int COORDINATE_DECIMALS = 5;
+    /**
+     * Writes the current coordinates into their text fields.
+     */
+    private void formatCoordinates(){
+        longField.edit().appendFixed(getLong(), COORDINATE_DECIMALS, decimalSeparator).append(" long");
+        latField.edit().appendFixed(getLat(), COORDINATE_DECIMALS, decimalSeparator).append(" lat");
+    }
     /**
      * Draws needle in addition to background and text fields.
      * @see Instrument#onDraw(Canvas)
@@ -603,10 +1038,7 @@ class GPSCoordinatesInstrument extends Instrument{
     protected void onDraw(@NonNull Canvas canvas){
         //if not placeholder
         if(fieldId != 0) {
-            textFieldValues.put("valueLong", getLong() + " long");
-            textFieldValues.put("valueLat", getLat() + " lat");
-            defineTextField("valueLong", 0.5f, 0.9f);
-            defineTextField("valueLat", 0.5f, 0.8f);
+            formatCoordinates();
             super.onDraw(canvas);
             //draw point
             canvas.drawCircle(getXByLong(), getYByLat(), 5, paint);
@@ -624,12 +1056,7 @@ class GPSCoordinatesInstrument extends Instrument{
         }else{
             subfield = (TelemetryDataNumber)(telemetry.getFieldById(((TelemetryDataGPS_SkyNav) field).children.get(0)));
         }
-        try {
-            return (float) subfield.value;
-        }catch(Exception e){
-            //value is empty and is considered an integer
-            return 0.0f;
-        }
+        return subfield.getFloat(values);
     }
     /**
      * @return Latitude stored in this GPS composite field
@@ -642,11 +1069,7 @@ class GPSCoordinatesInstrument extends Instrument{
         }else{
             subfield = (TelemetryDataNumber)(telemetry.getFieldById(((TelemetryDataGPS_SkyNav)field).children.get(1)));
         }
-        try {
-            return (float) subfield.value;
-        }catch(Exception e){
-            return 0.0f;
-        }
+        return subfield.getFloat(values);
     }
     /**
      * @return X Position for marker based on longitude
@@ -667,9 +1090,8 @@ class GPSCoordinatesInstrument extends Instrument{
     public ArrayAdapter<String> getAllowedFields(){
         ArrayAdapter<String> adp = new ArrayAdapter<>(ctx, R.layout.field_name);
         TelemetryData nextField;
-        for (Object o : TelemetryData.fields.entrySet()) {
-            Map.Entry pair = (Map.Entry) o;
-            nextField = (TelemetryData) pair.getValue();
+        for (int i = 0; i < telemetry.fields.size(); i++) {
+            nextField = telemetry.fields.valueAt(i);
             //GPS fields only
             if (nextField instanceof TelemetryDataGPS_DV4 || nextField instanceof TelemetryDataGPS_SkyNav) {
                 adp.add(nextField.name);
@@ -692,8 +1114,8 @@ class GPSCoordinatesInstrument extends Instrument{
      */
     private void initFields(){
         defineTextField("name", 0.5f, 0.10f);
-        defineTextField("valueLong", 0.5f, 0.9f);
-        defineTextField("valueLat", 0.5f, 0.8f);
+        longField = defineTextField("valueLong", 0.5f, 0.9f);
+        latField = defineTextField("valueLat", 0.5f, 0.8f);
     }
     /**
      * Class constructor.
@@ -703,15 +1125,16 @@ class GPSCoordinatesInstrument extends Instrument{
      */
     public GPSCoordinatesInstrument(Context ctx, long id){
         super(ctx, INSTRUMENT_GPS_COORDS);
-        setImageResource(R.drawable.world);
+        setBackgroundImage(R.drawable.world);
         this.fieldId = id;
         //if not placeholder
         if(fieldId != 0) {
             this.field = telemetry.getFieldById(fieldId);
-            textFieldValues.put("valueLong", getLong() + " long");
-            textFieldValues.put("valueLat", getLat() + " lat");
+            //includes the latitude and longitude subfields
+            subscribe(fieldId);
             textFieldValues.put("name", field.name);
             initFields();
+            formatCoordinates();
         }
     }
 
@@ -11,6 +11,8 @@ import android.graphics.Rect;
 import android.os.CountDownTimer;
 import android.os.Handler;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.preference.PreferenceManager;
 import android.support.v7.app.AppCompatActivity;
 import android.util.DisplayMetrics;
@@ -23,14 +25,13 @@ import android.view.Window;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.ListView;
 import android.widget.TableLayout;
 import android.widget.TableRow;
 import android.widget.Toast;
 
-import java.util.Iterator;
-import java.util.Map;
 import java.util.Vector;
 
 /**
@@ -56,6 +57,15 @@ public class MainActivity extends AppCompatActivity {
      * Instance of parser to access its fields and functions.
      */
     private Parser parser;
+    /**
+     * Decodes the Bluetooth input stream in the background and passes the messages to the {@link #parser}.
+     * Notifies the UI through {@link #updateDispatcher} when values changed.
+     */
+    private DecodeThread decodeThread;
+    /**
+     * Delivers value changes from the {@link #decodeThread} to the instruments, at most once per display frame.
+     */
+    private UpdateDispatcher updateDispatcher;
     /**
      * Instance of telemetry data container to access telemetry data.
      */
@@ -306,6 +316,22 @@ public class MainActivity extends AppCompatActivity {
         //build layout with new dimensions (height and width switched)
         makeLayout();
     }
+    /**
+     * Frees the bitmaps the instruments can do without once the dashboard is hidden or memory runs low:
+     * cached images nobody uses, and the static layers, which are drawn again when the instruments are shown.
+     */
+    @Override
+    public void onTrimMemory(int level){
+        super.onTrimMemory(level);
+        if(level >= TRIM_MEMORY_UI_HIDDEN){
+            for(Instrument instr : instrumentList){
+                instr.invalidateStaticLayer();
+            }
+        }
+        if(level >= TRIM_MEMORY_RUNNING_LOW){
+            BitmapCache.getInstance().trimUnused();
+        }
+    }
     /**
      * Initializes and adds an instrument to the list.
      * @param instr Instrument to add
@@ -401,9 +427,18 @@ public class MainActivity extends AppCompatActivity {
         this.prefsEditor = prefs.edit();
         prefsEditor.apply();
 
-        telemetry = TelemetryDataContainer.getNewInstance(this, prefs.getInt("protocol", TelemetryData.PROTOCOL_SKYNAVIGATOR));
+        int protocol = prefs.getInt("protocol", TelemetryData.PROTOCOL_SKYNAVIGATOR);
+        telemetry = TelemetryDataContainer.switchProtocol(this, protocol);
+        //build the fields of the other protocol in the background, so that switching to it is immediate
+        TelemetryDataContainer.prepare(this, protocol == TelemetryData.PROTOCOL_DV4 ? TelemetryData.PROTOCOL_SKYNAVIGATOR : TelemetryData.PROTOCOL_DV4);
         bluetooth = BluetoothService.getInstance(this, incomingHandler);
         parser = Parser.getInstance(this);
+        updateDispatcher = new UpdateDispatcher(parser, incomingHandler);
+        //0: update with every display frame
+        updateDispatcher.setMaxUpdateRate(prefs.getFloat("maxUpdateRate", 0));
+        decodeThread = new DecodeThread(parser, updateDispatcher);
+        decodeThread.start();
+        bluetooth.setIncomingRing(decodeThread.getRing());
 
         initNewInstrumentButton();
 
@@ -435,11 +470,10 @@ public class MainActivity extends AppCompatActivity {
         long nextFieldId;
         String message = "$PWEAC";
         for(int i = 0; i < 10; i++){
-            nextFieldId = TelemetryData.idList.get((int)Math.floor(Math.random() * TelemetryData.fields.size()));
+            nextFieldId = telemetry.idList.get((int)Math.floor(Math.random() * telemetry.fields.size()));
             message += "," + Long.toHexString(nextFieldId).toUpperCase();
         }
-        message += "*39";
-        parser.processMessage(message);
+        parser.processMessage(Parser.appendChecksum(message));
 
         new CountDownTimer(1000000, 1000){
             String hexData;
@@ -453,7 +487,7 @@ public class MainActivity extends AppCompatActivity {
                 String message = "$PWEAD0";
                 //build data message
                 for(int i = 0; i < 10; i++){
-                    nextField = TelemetryData.fields.get(parser.configFields[i]);
+                    nextField = telemetry.fields.get(parser.configFields[i]);
                     fieldSize = TelemetryData.sizeByType(nextField.type);
                     hexData = "";
                     for(int j = 0; j < fieldSize; j++){
@@ -461,8 +495,7 @@ public class MainActivity extends AppCompatActivity {
                     }
                     message += "," + hexData;
                 }
-                message += "*39";
-                parser.processMessage(message);
+                parser.processMessage(Parser.appendChecksum(message));
             }
         }.start();
     }
@@ -506,6 +539,14 @@ public class MainActivity extends AppCompatActivity {
             case R.id.action_switch_protocol:
                 telemetry = switchProtocol();
                 return true;
+            //limit how often instruments are updated
+            case R.id.action_update_rate:
+                showUpdateRateList();
+                return true;
+            //counters of the decoding, e.g. to check a noisy link
+            case R.id.action_statistics:
+                showStatistics();
+                return true;
         }
 
         return super.onOptionsItemSelected(item);
@@ -542,7 +583,7 @@ public class MainActivity extends AppCompatActivity {
      * Only two protocols are used, therefore the button simply toggles them without additional menus.
      */
     private TelemetryDataContainer switchProtocol(){
-        int curProtocol = TelemetryData.protocol;
+        int curProtocol = telemetry.protocol;
         int newProtocol;
         if(curProtocol == TelemetryData.PROTOCOL_DV4){
             newProtocol = TelemetryData.PROTOCOL_SKYNAVIGATOR;
@@ -557,7 +598,7 @@ public class MainActivity extends AppCompatActivity {
         instrumentList.clear();
         storeLayout();
         makeLayout();
-        return TelemetryDataContainer.getNewInstance(this, newProtocol);
+        return TelemetryDataContainer.switchProtocol(this, newProtocol);
     }
     /**
      * Shortcut funftion to output a Toast message.
@@ -573,6 +614,7 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy(){
         bluetooth.stop();
+        decodeThread.quit();
         super.onDestroy();
     }
     /**
@@ -620,6 +662,45 @@ public class MainActivity extends AppCompatActivity {
          * The transmitting device will start transmitting according to this new config.
          */
         private Button sendConfigButton;
+        /**
+         * Search box above {@link #knownListView}. While it is not empty, the known list shows the matching fields instead.
+         */
+        private EditText searchEditText;
+        /**
+         * Not selected fields matching the search, shown in {@link #knownListView} while searching.
+         */
+        private ArrayAdapter<String> foundFieldList;
+        /**
+         * Result of the last search, refined as the user types. Null when not searching.
+         */
+        private FieldSearchIndex.Result searchResult = null;
+        /**
+         * Fills {@link #foundFieldList} with the fields matching the search box, including subfields of contracted composite fields.
+         * Shows {@link #knownFieldList} again when the search box is empty.
+         */
+        private void filterFieldList(){
+            String query = searchEditText.getText().toString();
+            if(query.trim().isEmpty()){
+                searchResult = null;
+                knownListView.setAdapter(knownFieldList);
+                return;
+            }
+            boolean wasSearching = searchResult != null;
+            FieldSearchIndex index = telemetry.getSearchIndex();
+            searchResult = index.search(query, searchResult);
+            foundFieldList.setNotifyOnChange(false);
+            foundFieldList.clear();
+            String name;
+            for(int i = 0; i < searchResult.count; i++){
+                name = index.get(searchResult, i).name;
+                if(selectedFieldList.getPosition(name) == -1)
+                    foundFieldList.add(name);
+            }
+            foundFieldList.notifyDataSetChanged();
+            if(!wasSearching){
+                knownListView.setAdapter(foundFieldList);
+            }
+        }
         /**
          * Gets the {@link Parser#configFields current config} and fills dialog lists accordingly.
          */
@@ -642,6 +723,7 @@ public class MainActivity extends AppCompatActivity {
                     //field is null
                 }
             }
+            filterFieldList();
         }
         /**
          * Gets the contents of {@link #selectedFieldList} and builds a String to transmit via Bluetooth.
@@ -658,16 +740,14 @@ public class MainActivity extends AppCompatActivity {
             return config;
         }
         /**
-         * Gets all field name from {@link TelemetryData#fields} and stores them in {@link #knownFieldList}
+         * Gets all field name from {@link TelemetryDataContainer#fields} and stores them in {@link #knownFieldList}
          */
         private void initFieldList(){
             knownFieldList = new ArrayAdapter<>(getContext(), R.layout.field_name);
 
-            Iterator it = TelemetryData.fields.entrySet().iterator();
             TelemetryData nextField;
-            while (it.hasNext()) {
-                Map.Entry pair = (Map.Entry)it.next();
-                nextField = (TelemetryData)pair.getValue();
+            for(int i = 0; i < telemetry.fields.size(); i++){
+                nextField = telemetry.fields.valueAt(i);
                 if(nextField.parent == null || nextField instanceof TelemetryDataComposite)
                     knownFieldList.add(nextField.name);
             }
@@ -745,6 +825,22 @@ public class MainActivity extends AppCompatActivity {
 
             knownListView = (ListView)findViewById(R.id.knownFieldsListView);
             knownListView.setAdapter(knownFieldList);
+            foundFieldList = new ArrayAdapter<>(getContext(), R.layout.field_name);
+
+            searchEditText = (EditText)findViewById(R.id.fieldSearchEditText);
+            //filter on each keystroke
+            searchEditText.addTextChangedListener(new TextWatcher(){
+                @Override
+                public void beforeTextChanged(CharSequence s, int start, int count, int after){
+                }
+                @Override
+                public void onTextChanged(CharSequence s, int start, int before, int count){
+                }
+                @Override
+                public void afterTextChanged(Editable s){
+                    filterFieldList();
+                }
+            });
 
             selectedListView = (ListView)findViewById(R.id.selectedFieldsListView);
             selectedListView.setAdapter(selectedFieldList);
@@ -757,9 +853,15 @@ public class MainActivity extends AppCompatActivity {
                 public void onItemClick(AdapterView<?> adapter, View clicked_view, int pos, long row) {
                     if (adapter.getCount() > 0) {
                         String clicked = (String) knownListView.getItemAtPosition(pos);
+                        //a found subfield stays selected only if its parent is expanded
+                        TelemetryData field = telemetry.getFieldByName(clicked);
+                        if(field.parent != null && !field.parent.showingChildren){
+                            field.parent.showingChildren = true;
+                        }
                         selectedFieldList.add(clicked);
                         knownFieldList.remove(clicked);
                         refreshFieldList();
+                        filterFieldList();
                     }
                     //dialog_instance.dismiss();
                 }
@@ -773,6 +875,7 @@ public class MainActivity extends AppCompatActivity {
                         knownFieldList.add(clicked);
                         selectedFieldList.remove(clicked);
                         refreshFieldList();
+                        filterFieldList();
                     }
                     //dialog_instance.dismiss();
                 }
@@ -908,6 +1011,130 @@ public class MainActivity extends AppCompatActivity {
             setTitle(getString(R.string.Available_instruments));
         }
     }
+    /**
+     * A class defining the popup {@link Dialog} that appears when limiting the instrument update rate.
+     * The dialog consists of a list of rates. Clicking on a rate applies it and stores it as "maxUpdateRate" in preferences.
+     */
+    class updateRateDialog extends Dialog {
+        /**
+         * Rates to choose from, in updates per second. 0 updates with every display frame.
+         */
+        private final float[] rates = {0, 30, 20, 10, 5, 1};
+        /**
+         * List of rates to show in the menu.
+         */
+        private ArrayAdapter<String> rateList;
+        /**
+         * Interface element containing values from {@link #rateList}
+         */
+        private ListView rateListView;
+        /**
+         * Class constructor.
+         * Defines interface elements and initializes variables.
+         */
+        protected updateRateDialog(Context context) {
+            super(context);
+            final updateRateDialog dialog_instance = this;
+            setContentView(R.layout.basic_list_dialog);
+
+            rateList = new ArrayAdapter<>(getContext(), R.layout.field_name);
+            for(float rate : rates){
+                rateList.add(rateName(rate));
+            }
+            rateListView = (ListView)findViewById(R.id.basicListView);
+            rateListView.setAdapter(rateList);
+            //click - apply and remember rate
+            rateListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+                @Override
+                public void onItemClick(AdapterView<?> adapter, View clicked_view, int pos, long row) {
+                    updateDispatcher.setMaxUpdateRate(rates[pos]);
+                    prefsEditor.putFloat("maxUpdateRate", rates[pos]);
+                    prefsEditor.commit();
+                    printMessage(getString(R.string.Update_rate) + ": " + rateName(rates[pos]));
+                    dialog_instance.dismiss();
+                }
+            });
+            setTitle(getString(R.string.Update_rate) + ": " + rateName(prefs.getFloat("maxUpdateRate", 0)));
+        }
+        /**
+         * @return Text shown for a rate
+         */
+        private String rateName(float rate){
+            if(rate <= 0) return getString(R.string.Every_display_frame);
+            return (int)rate + " " + getString(R.string.Per_second);
+        }
+    }
+    /**
+     * A function to construct and show the {@link updateRateDialog}
+     */
+    private void showUpdateRateList() {
+        final Dialog showRatesDialog = new updateRateDialog(this);
+        showRatesDialog.show();
+    }
+    /**
+     * A class defining the popup {@link Dialog} that shows the counters of the Bluetooth link and the decoding:
+     * frame rate and framing errors of the {@link FrameDecoder}, checksum errors and decode plan reuse of the {@link Parser},
+     * and how many update requests the {@link UpdateDispatcher} merged. Clicking the list reads the counters again.
+     */
+    class statisticsDialog extends Dialog {
+        /**
+         * Lines of counters to show in the menu.
+         */
+        private ArrayAdapter<String> lineList;
+        /**
+         * Interface element containing values from {@link #lineList}
+         */
+        private ListView lineListView;
+        /**
+         * Class constructor.
+         * Defines interface elements and initializes variables.
+         */
+        protected statisticsDialog(Context context) {
+            super(context);
+            setContentView(R.layout.basic_list_dialog);
+            setTitle(getString(R.string.Link_statistics));
+
+            lineList = new ArrayAdapter<>(getContext(), R.layout.field_name);
+            lineListView = (ListView)findViewById(R.id.basicListView);
+            lineListView.setAdapter(lineList);
+            //click - refresh
+            lineListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+                @Override
+                public void onItemClick(AdapterView<?> adapter, View clicked_view, int pos, long row) {
+                    refresh();
+                }
+            });
+            refresh();
+        }
+        /**
+         * Reads the counters. They are written by the decoding thread, and are read here as they are at the moment.
+         */
+        private void refresh(){
+            FrameDecoder frames = decodeThread.getFrameDecoder();
+            lineList.clear();
+            lineList.add(getString(R.string.Frames_per_second) + ": " + String.format("%.1f", frames.getFramesPerSecond()));
+            lineList.add(getString(R.string.Frames_received) + ": " + frames.getFramesTotal());
+            lineList.add(getString(R.string.Frames_cut_off) + ": " + frames.getFramesTruncated());
+            lineList.add(getString(R.string.Frames_too_long) + ": " + frames.getFramesOverflowed());
+            lineList.add(getString(R.string.Bytes_received) + ": " + frames.getBytesTotal());
+            lineList.add(getString(R.string.Bytes_dropped) + ": " + frames.getBytesDropped());
+            lineList.add(getString(R.string.Config_checksum_errors) + ": " + parser.getConfigChecksumFailures());
+            for(int stream = 0; stream < 4; stream++){
+                lineList.add(getString(R.string.Data_checksum_errors) + " ($PWEAD" + stream + "): " + parser.getDataChecksumFailures(stream));
+            }
+            lineList.add(getString(R.string.Decode_plans_reused) + ": " + parser.getPlanCacheHits());
+            lineList.add(getString(R.string.Decode_plans_built) + ": " + parser.getPlanCacheMisses());
+            lineList.add(getString(R.string.Update_requests) + ": " + updateDispatcher.getRequestCount());
+            lineList.add(getString(R.string.Updates_delivered) + ": " + updateDispatcher.getDispatchCount());
+        }
+    }
+    /**
+     * A function to construct and show the {@link statisticsDialog}
+     */
+    private void showStatistics() {
+        final Dialog showStatisticsDialog = new statisticsDialog(this);
+        showStatisticsDialog.show();
+    }
     /**
      * A function to construct and show the {@link instrumentListDialog}
      */
@@ -932,6 +1159,45 @@ public class MainActivity extends AppCompatActivity {
          * Interface element containing values from {@link #allowedFieldList}
          */
         private ListView allowedFieldListView;
+        /**
+         * Search box above {@link #allowedFieldListView}. While it is not empty, the list shows the matching usable fields instead.
+         */
+        private EditText searchEditText;
+        /**
+         * Usable fields matching the search, shown in {@link #allowedFieldListView} while searching.
+         */
+        private ArrayAdapter<String> foundFieldList;
+        /**
+         * Result of the last search, refined as the user types. Null when not searching.
+         */
+        private FieldSearchIndex.Result searchResult = null;
+        /**
+         * Fills {@link #foundFieldList} with the fields matching the search box that the instrument can use,
+         * including subfields of contracted composite fields. Shows {@link #allowedFieldList} again when the search box is empty.
+         */
+        private void filterFieldList(){
+            String query = searchEditText.getText().toString();
+            if(query.trim().isEmpty()){
+                searchResult = null;
+                allowedFieldListView.setAdapter(allowedFieldList);
+                return;
+            }
+            boolean wasSearching = searchResult != null;
+            FieldSearchIndex index = telemetry.getSearchIndex();
+            searchResult = index.search(query, searchResult);
+            foundFieldList.setNotifyOnChange(false);
+            foundFieldList.clear();
+            String name;
+            for(int i = 0; i < searchResult.count; i++){
+                name = index.get(searchResult, i).name;
+                if(instrumentInWork.fieldUsable(name))
+                    foundFieldList.add(name);
+            }
+            foundFieldList.notifyDataSetChanged();
+            if(!wasSearching){
+                allowedFieldListView.setAdapter(foundFieldList);
+            }
+        }
         /**
          * Class constructor.
          * Defines interface elements and initializes variables.
@@ -945,6 +1211,23 @@ public class MainActivity extends AppCompatActivity {
             setContentView(R.layout.basic_list_dialog);
             allowedFieldListView = (ListView)findViewById(R.id.basicListView);
             allowedFieldListView.setAdapter(allowedFieldList);
+            foundFieldList = new ArrayAdapter<>(getContext(), R.layout.field_name);
+
+            searchEditText = (EditText)findViewById(R.id.fieldSearchEditText);
+            searchEditText.setVisibility(View.VISIBLE);
+            //filter on each keystroke
+            searchEditText.addTextChangedListener(new TextWatcher(){
+                @Override
+                public void beforeTextChanged(CharSequence s, int start, int count, int after){
+                }
+                @Override
+                public void onTextChanged(CharSequence s, int start, int before, int count){
+                }
+                @Override
+                public void afterTextChanged(Editable s){
+                    filterFieldList();
+                }
+            });
             //click - choose as source
             allowedFieldListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
                 @Override
@@ -1022,24 +1305,12 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * A handler to process messages from {@link BluetoothService.ConnectedThread Bluetooth input stream}.
+     * A handler to process messages on the UI thread. Also runs the {@link #updateDispatcher}.
      * @see Handler
      */
     private Handler incomingHandler = new Handler(new Handler.Callback() {
         public boolean handleMessage(android.os.Message msg) {
-            StringBuilder sb = new StringBuilder();
             switch (msg.what) {
-                case Constants.INCOMING_MESSAGE:
-                    byte[] readBuf = (byte[]) msg.obj;
-                    String strIncom = new String(readBuf, 0, msg.arg1);
-                    sb.append(strIncom);
-                    int endOfLineIndex = sb.lastIndexOf("\r\n");
-                    if (endOfLineIndex > 0) {
-                        String sbPrint = sb.substring(0, endOfLineIndex);
-                        sb.delete(0, sb.length());
-                        parser.processMessage(sbPrint);
-                    }
-                    break;
                 case Constants.DATA_UPDATED:
                     //
                     break;
@@ -1,123 +1,369 @@
 package com.weatronic.bluetoothtelemetry;
 
 import android.content.Context;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Observable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Parses Bluetooth message strings: extracts the list of field IDs and data values.
- * Stores the IDs, sets the values of corresponding fields in {@link TelemetryDataContainer telemetry container}
+ * Stores the IDs, sets the values of corresponding fields in the {@link ValueStore values} of its {@link TelemetrySession session}.
+ * Each session has its own parser; all of its state is per instance.
  */
-public class Parser extends Observable {
+public class Parser extends Observable implements FrameDecoder.FrameListener {
     /**
-     * Stores class instance to be returned.
-     * See {@link #getInstance(Context) getInstance}
+     * Session whose messages are parsed.
      */
-    public static Parser instance = null;
+    private final TelemetrySession session;
     /**
-     * Context of the calling activity.
-     * See {@link Parser(Context) constructor}
+     * List of field IDs from latest configuration message.
+     * Replaced (never changed in place) by the decoding thread, read by the UI.
      */
-    private Context ctx;
+    public volatile long[] configFields = new long[0];
     /**
-     * See {@link TelemetryDataContainer}
+     * True if a data message changed values since the last {@link #takeDataUpdated()}.
+     * Only used by the decoding thread.
      */
-    private TelemetryDataContainer telemetry = TelemetryDataContainer.getInstance(ctx);
+    private boolean dataUpdated = false;
     /**
-     * List of field IDs from latest configuration message.
+     * Fields of {@link #configFields}, resolved for decoding data messages.
+     */
+    private DecodePlan plan = null;
+    /**
+     * Maximum number of decode plans kept in {@link #planCache}.
+     */
+    private static final int PLAN_CACHE_SIZE = 8;
+    /**
+     * Recently used decode plans, keyed by {@link #configHash(int) hash} of their field IDs.
+     * Switching back to a recent config reuses its plan instead of resolving all fields again.
+     * Iteration order is access order, so the least recently used plan is dropped first.
+     */
+    private final LinkedHashMap<Long, DecodePlan> planCache = new LinkedHashMap<Long, DecodePlan>(16, 0.75f, true){
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, DecodePlan> eldest){
+            return size() > PLAN_CACHE_SIZE;
+        }
+    };
+    /**
+     * Number of config changes served from {@link #planCache}.
+     */
+    private final AtomicLong planCacheHits = new AtomicLong();
+    /**
+     * Number of config changes that needed a new decode plan.
+     */
+    private final AtomicLong planCacheMisses = new AtomicLong();
+    /**
+     * Start index of each value in the message being processed. Reused between messages.
+     * Value i spans from fieldStarts[i] to the delimiter before fieldStarts[i + 1].
+     */
+    private int[] fieldStarts = new int[64];
+    /**
+     * Field IDs of the config message being processed. Reused between messages.
      */
-    public long[] configFields = new long[0];
+    private long[] configScratch = new long[64];
     /**
-     * Latest config message as string. Used in {@link MainActivity.fieldListDialog#useLastConfig()}
+     * Message type prefixes.
      */
-    public String lastConfigMessage = "";
+    private static final byte[] CONFIG_PREFIX = {'$', 'P', 'W', 'E', 'A', 'C'};
+    private static final byte[] DATA_PREFIX = {'$', 'P', 'W', 'E', 'A', 'D'};
     /**
-     * Returns an instance of Parser.
-     * Constructs new instance if it has not been constructed; otherwise returns existing instance.
+     * Number of messages rejected because of a wrong or missing checksum, per message type.
+     * Index 0 counts config messages, indices 1 - 4 count data messages $PWEAD0 - $PWEAD3.
+     */
+    private final AtomicLongArray checksumFailures = new AtomicLongArray(5);
+    /**
+     * Returns the parser of the {@link TelemetrySession#getInstance(Context) default session}.
      * Makes sure the same instance is used.
      */
     public static Parser getInstance(Context ctx){
-        if(instance == null){
-            instance = new Parser(ctx);
-        }
-        return instance;
+        return TelemetrySession.getInstance(ctx).getParser();
     }
     /**
      * A simple constructor.
-     * @param ctx Context of the calling activity
+     * @param session Session whose messages are parsed
      */
-    public Parser(Context ctx){
-        this.ctx = ctx;
+    Parser(TelemetrySession session){
+        this.session = session;
     }
     /**
-     * Converts field IDs from hex-strings to integers and stores for later use.
-     * @param values List of field IDs to be converted and stored
+     * Converts field IDs from hex to integers and stores them for later use.
+     * The list is only replaced if it differs from the current one.
+     * A recently used list is taken from {@link #planCache} together with its decode plan.
+     * @param buf Message buffer
+     * @param fieldCount Number of values in the message, including the message type
+     * @param end Index of the '*' that ends the values
      */
-    public void processConfig(String[] values){
-        int size = values.length;
-        configFields = new long[size];
-        for(int i = 1; i < size; i++){
-            try {
-                configFields[i] = Long.parseLong(values[i], 16);
-            }catch(Exception e){
-                //bad string, ignoring
-                configFields[i] = 0;
-            }
+    private void processConfig(byte[] buf, int fieldCount, int end){
+        //empty values at the end carry no IDs
+        while(fieldCount > 1 && fieldEnd(fieldCount - 1, fieldCount, end) == fieldStarts[fieldCount - 1]){
+            fieldCount--;
+        }
+        if(configScratch.length < fieldCount){
+            configScratch = new long[fieldCount * 2];
+        }
+        long id;
+        for(int i = 1; i < fieldCount; i++){
+            id = HexDecoder.parseBigEndian(buf, fieldStarts[i], fieldEnd(i, fieldCount, end));
+            //bad value, ignoring
+            configScratch[i] = id == HexDecoder.INVALID ? 0 : id;
         }
+        if(sameConfig(fieldCount)){
+            return;
+        }
+        TelemetryDataContainer container = session.getContainer();
+        if(container == null){
+            //no protocol chosen yet
+            return;
+        }
+        Long key = configHash(fieldCount);
+        DecodePlan cached = planCache.get(key);
+        //the hash may collide and plans of another protocol are useless, so check before using
+        if(cached != null && cached.container == container && cached.matches(configScratch, fieldCount)){
+            planCacheHits.incrementAndGet();
+            configFields = cached.ids;
+            plan = cached;
+            return;
+        }
+        planCacheMisses.incrementAndGet();
+        long[] newConfig = new long[fieldCount];
+        System.arraycopy(configScratch, 1, newConfig, 1, fieldCount - 1);
+        configFields = newConfig;
+        plan = new DecodePlan(newConfig, container);
+        planCache.put(key, plan);
+    }
+    /**
+     * @return Hash of the field IDs in {@link #configScratch}
+     */
+    private long configHash(int fieldCount){
+        long hash = fieldCount;
+        for(int i = 1; i < fieldCount; i++){
+            hash = (hash ^ configScratch[i]) * 0x100000001B3L;
+        }
+        return hash ^ (hash >>> 29);
+    }
+    /**
+     * @return True if the IDs in {@link #configScratch} are the same as in {@link #configFields}
+     */
+    private boolean sameConfig(int fieldCount){
+        if(configFields.length != fieldCount) return false;
+        for(int i = 1; i < fieldCount; i++){
+            if(configFields[i] != configScratch[i]) return false;
+        }
+        return true;
     }
     /**
      * Sets data values to telemetry data fields, if possible.
-     * The list of field IDs is stored in {@link #configFields}.
-     * Conversion is handled by the {@link TelemetryDataContainer#setDataById(long, String) setter function}.
-     * @param values List of values to be set
-     */
-    public void processData(String[] values){
-        int size = values.length;
-        for(int i = 1; i < size; i++){
-            //if somehow config array is smaller
-            if(i >= configFields.length) break;
-            //if id is correct
-            if(configFields[i] != 0) {
-                telemetry.setDataById(configFields[i], values[i]);
-            }
+     * The list of field IDs is stored in {@link #configFields}; values are decoded through the matching {@link DecodePlan}.
+     * The plan is rebuilt if the config was replaced from outside or the protocol (and with it the field container) changed.
+     * @param buf Message buffer
+     * @param fieldCount Number of values in the message, including the message type
+     * @param end Index of the '*' that ends the values
+     * @param timeNs Receive time of the message
+     */
+    private void processData(byte[] buf, int fieldCount, int end, long timeNs){
+        DecodePlan current = plan;
+        ValueStore values = session.getValues();
+        if(values == null){
+            //no protocol chosen yet
+            return;
+        }
+        TelemetryDataContainer container = values.catalog;
+        if(current == null || current.ids != configFields || current.container != container){
+            current = new DecodePlan(configFields, container);
+            plan = current;
+        }
+        current.apply(values, buf, fieldStarts, fieldCount, end, timeNs);
+        dataUpdated = true;
+    }
+    /**
+     * Called by the decoding thread after a batch of messages.
+     * @return True if any data message was processed since the last call
+     */
+    boolean takeDataUpdated(){
+        boolean updated = dataUpdated;
+        dataUpdated = false;
+        return updated;
+    }
+    /**
+     * Notifies observers (instruments) that field values changed.
+     * Observers receive the {@link ValueStore} of this update: the values to show and their {@link ValueStore#changes changes},
+     * so they can skip redrawing if their fields did not change.
+     * Field values are snapshotted first, so all observers read the same consistent values; the changes are only taken
+     * once the snapshot succeeded.
+     * Must be called on the UI thread.
+     * @return False if no consistent snapshot could be taken; nothing was published and the update must be requested again
+     * @see UpdateDispatcher
+     */
+    public boolean publishUpdate(){
+        ValueStore values = session.getValues();
+        if(values == null) return true;
+        ChangedFields changes = values.changes;
+        if(!changes.hasPending()){
+            //no field changed
+            return true;
+        }
+        //values of completely decoded messages only, the same for all observers
+        if(!values.takeSnapshot()){
+            //the decoding thread kept writing, the changes stay pending for the next try
+            return false;
+        }
+        changes.swap();
+        if(values.isNewerThanSnapshot()){
+            //some changes taken may belong to a message written after the snapshot: show them again with the next update
+            changes.keep();
         }
         setChanged();
-        notifyObservers();
+        notifyObservers(values);
+        return true;
     }
     /**
-     * Reads a Bluetooth message and separates it into meaningful values.
-     * Process values as {@link #processConfig(String[]) config} or {@link #processData(String[]) data} based on message prefix.
+     * @return Index after the last character of value i
+     */
+    private int fieldEnd(int i, int fieldCount, int end){
+        return i + 1 < fieldCount ? fieldStarts[i + 1] - 1 : end;
+    }
+    /**
+     * Receives a complete message from the {@link FrameDecoder} and processes it.
+     * @see #processFrame(byte[], int, int, long)
+     */
+    @Override
+    public void onFrame(byte[] buffer, int start, int end, long timeNs){
+        processFrame(buffer, start, end, timeNs);
+    }
+    /**
+     * Reads a Bluetooth message given as string and notifies observers right away.
+     * Only for messages created on the UI thread, such as the simulation.
      * @param message Bluetooth message to be processed
+     * @see #processFrame(byte[], int, int, long)
      */
     public void processMessage(String message){
-        try {
-            message = message.substring(0, message.lastIndexOf('*'));
-        }catch(Exception e){
+        byte[] buf = message.getBytes();
+        processFrame(buf, 0, buf.length);
+        if(takeDataUpdated()){
+            //if the snapshot fails, the changes are published with the next message
+            publishUpdate();
+        }
+    }
+    /**
+     * Reads a Bluetooth message received just now.
+     * @see #processFrame(byte[], int, int, long)
+     */
+    public void processFrame(byte[] buf, int start, int end){
+        processFrame(buf, start, end, System.nanoTime());
+    }
+    /**
+     * Reads a Bluetooth message and separates it into meaningful values.
+     * The message is scanned once to find the value delimiters and calculate the checksum; values are then decoded in place, without creating Strings.
+     * Messages with a wrong or missing checksum are dropped and counted, see {@link #getConfigChecksumFailures()}.
+     * Process values as {@link #processConfig(byte[], int, int) config} or {@link #processData(byte[], int, int, long) data} based on message prefix.
+     * @param buf Buffer containing the message
+     * @param start Index of the leading '$'
+     * @param end Index after the last character of the message
+     * @param timeNs Time the message was received, in {@link System#nanoTime()} time base; stored with the field values
+     */
+    public void processFrame(byte[] buf, int start, int end, long timeNs){
+        //find value delimiters, everything after the last '*' is ignored
+        //the checksum is the XOR of all characters between '$' and '*', computed in the same pass
+        int fieldCount = 1;
+        int valuesEnd = -1;
+        int countAtEnd = 0;
+        int checksum = 0;
+        int checksumAtEnd = 0;
+        fieldStarts[0] = start;
+        byte b;
+        for(int i = start + 1; i < end; i++){
+            b = buf[i];
+            if(b == ','){
+                if(fieldCount == fieldStarts.length){
+                    int[] grown = new int[fieldCount * 2];
+                    System.arraycopy(fieldStarts, 0, grown, 0, fieldCount);
+                    fieldStarts = grown;
+                }
+                fieldStarts[fieldCount++] = i + 1;
+            }else if(b == '*'){
+                valuesEnd = i;
+                countAtEnd = fieldCount;
+                checksumAtEnd = checksum;
+            }
+            checksum ^= b & 0xFF;
+        }
+        if(valuesEnd < 0){
             //invalid message
             return;
         }
-        String[] values = message.split(",");
-        if(values == null){
+        fieldCount = countAtEnd;
+        int typeEnd = fieldCount > 1 ? fieldStarts[1] - 1 : valuesEnd;
+        int typeLength = typeEnd - start;
+
+        int type;
+        if(typeLength == CONFIG_PREFIX.length && startsWith(buf, start, CONFIG_PREFIX)){
+            type = 0;
+        }else if(typeLength == DATA_PREFIX.length + 1 && startsWith(buf, start, DATA_PREFIX)
+                && buf[start + DATA_PREFIX.length] >= '0' && buf[start + DATA_PREFIX.length] <= '3'){
+            //$PWEAD0 - $PWEAD3
+            type = 1 + buf[start + DATA_PREFIX.length] - '0';
+        }else{
+            //unknown message type
             return;
         }
-        String msgType = values[0];
-
-        switch(msgType){
-            case "$PWEAC":
-                if(!message.equals(lastConfigMessage)){
-                    processConfig(values);
-                    lastConfigMessage = message;
-                }
-                break;
-            case "$PWEAD0":
-            case "$PWEAD1":
-            case "$PWEAD2":
-            case "$PWEAD3":
-                if(configFields != null){
-                    processData(values);
-                    //printData();
-                }
-                break;
+        //reject corrupted messages before decoding any values
+        if(end - valuesEnd < 3 || HexDecoder.parseBigEndian(buf, valuesEnd + 1, valuesEnd + 3) != checksumAtEnd){
+            checksumFailures.incrementAndGet(type);
+            return;
+        }
+        if(type == 0){
+            processConfig(buf, fieldCount, valuesEnd);
+        }else{
+            processData(buf, fieldCount, valuesEnd, timeNs);
+        }
+    }
+    /**
+     * Calculates the checksum of a message and appends it.
+     * @param message Message starting with '$', without the '*'
+     * @return Message followed by '*' and two hex digits of the checksum
+     */
+    public static String appendChecksum(String message){
+        int checksum = 0;
+        for(int i = 1; i < message.length(); i++){
+            checksum ^= message.charAt(i);
+        }
+        return message + String.format("*%02X", checksum & 0xFF);
+    }
+    /**
+     * @return Number of config changes that reused a cached decode plan
+     */
+    public long getPlanCacheHits(){
+        return planCacheHits.get();
+    }
+    /**
+     * @return Number of config changes that built a new decode plan
+     */
+    public long getPlanCacheMisses(){
+        return planCacheMisses.get();
+    }
+    /**
+     * @return Number of config messages rejected because of a bad checksum
+     */
+    public long getConfigChecksumFailures(){
+        return checksumFailures.get(0);
+    }
+    /**
+     * @param stream Data message stream number, 0 - 3 for $PWEAD0 - $PWEAD3
+     * @return Number of data messages of this stream rejected because of a bad checksum
+     */
+    public long getDataChecksumFailures(int stream){
+        return checksumFailures.get(1 + stream);
+    }
+    /**
+     * @return True if the buffer contains the prefix at given position
+     */
+    private static boolean startsWith(byte[] buf, int start, byte[] prefix){
+        for(int i = 0; i < prefix.length; i++){
+            if(buf[start + i] != prefix[i]) return false;
         }
+        return true;
     }
 
 }
@@ -0,0 +1,197 @@
+package com.weatronic.bluetoothtelemetry;
+
+/**
+ * Bit arithmetic for field IDs and raw values of both protocols.
+ * Field IDs and flags were originally handled as hex/binary strings; every method here gives the same result as that
+ * string handling, including its quirks, using shifts and masks only. Where the string handling failed, the same kind of
+ * exception is thrown: {@link IndexOutOfBoundsException} if the input is too short, {@link NumberFormatException} if the result overflows.
+ */
+final class TelemetryCodec {
+
+    private TelemetryCodec(){
+    }
+    /**
+     * @return Number of significant bits, as in the length of {@link Long#toBinaryString(long)}
+     */
+    private static int bitLength(long value){
+        return value == 0 ? 1 : 64 - Long.numberOfLeadingZeros(value);
+    }
+    /**
+     * @return Number of hex digits, as in the length of {@link Long#toHexString(long)}
+     */
+    private static int hexLength(long value){
+        return (bitLength(value) + 3) >>> 2;
+    }
+    /**
+     * Reads the data type contained in a field ID.
+     * DV4: the last hex digit. SkyNavigator: the first 5 bits of the ID, written with all of its hex digits.
+     * @param id Field ID
+     * @param protocol {@link TelemetryData#PROTOCOL_DV4} or {@link TelemetryData#PROTOCOL_SKYNAVIGATOR}
+     * @return Type ID
+     * @throws IndexOutOfBoundsException SkyNavigator ID with less than 2 hex digits
+     */
+    static int typeOf(long id, int protocol){
+        if(id == 0){
+            return 0;
+        }
+        if(protocol == TelemetryData.PROTOCOL_DV4){
+            return (int)(id & 0xF);
+        }
+        int bits = hexLength(id) * 4;
+        if(bits < 5){
+            throw new IndexOutOfBoundsException("ID too short: " + id);
+        }
+        return (int)(id >>> (bits - 5)) & 0x1F;
+    }
+    /**
+     * Largest positive value of a signed number of given size.
+     * Sizes below 1 count as 1 byte.
+     * @throws NumberFormatException Size above 8 bytes
+     */
+    private static long maxPositive(int sizeBytes){
+        if(sizeBytes > 8){
+            throw new NumberFormatException("Size too large: " + sizeBytes);
+        }
+        return (1L << (Math.max(sizeBytes, 1) * 8 - 1)) - 1;
+    }
+    /**
+     * Converts an unsigned number to signed.
+     * Values above the largest positive value are mirrored below 0: max + n becomes -n.
+     * Note that this is not two's complement (0xFF as 1 byte becomes -128, not -1); kept for compatibility.
+     * @param value Unsigned value
+     * @param sizeBytes Size of the number in bytes
+     * @return Signed value
+     */
+    static long toSigned(long value, int sizeBytes){
+        long max = maxPositive(sizeBytes);
+        return value > max ? max - value : value;
+    }
+    /**
+     * Reads a flag bit. The position is counted from the highest set bit of the value, which is position 0.
+     * @param raw Raw value
+     * @param flagPos Position of the flag
+     * @return True if the flag is set
+     * @throws IndexOutOfBoundsException The value has not enough bits for the position
+     */
+    static boolean flagSet(long raw, int flagPos){
+        int length = bitLength(raw);
+        if(flagPos < 0 || flagPos >= length){
+            throw new IndexOutOfBoundsException("Flag position " + flagPos + " of " + length + " bits");
+        }
+        return ((raw >>> (length - 1 - flagPos)) & 1) != 0;
+    }
+    /**
+     * Removes a flag bit, shifting the higher bits down by one.
+     * @param raw Raw value
+     * @param flagPos Position of the flag, see {@link #flagSet(long, int)}
+     * @return Value without the flag
+     * @throws IndexOutOfBoundsException The value has not enough bits for the position
+     * @throws NumberFormatException No bits left after removing the flag
+     */
+    static long removeFlag(long raw, int flagPos){
+        int length = bitLength(raw);
+        if(flagPos < 0 || flagPos >= length){
+            throw new IndexOutOfBoundsException("Flag position " + flagPos + " of " + length + " bits");
+        }
+        if(length == 1){
+            throw new NumberFormatException("No bits left");
+        }
+        int bit = length - 1 - flagPos;
+        long high = bit == 63 ? 0 : (raw >>> (bit + 1)) << bit;
+        return high | (raw & ((1L << bit) - 1));
+    }
+    /**
+     * @return Type to use in subfield IDs. 12-bit values have no type of their own in IDs and use signed short.
+     */
+    static int idSubType(int type){
+        return type == TelemetryData.SIGNED_12BIT ? TelemetryData.SIGNED_SHORT : type;
+    }
+    /**
+     * Joins bits to a value, failing like parsing a too long binary string.
+     * @param high Upper part
+     * @param lowBits Number of bits in the lower part
+     * @param low Lower part
+     * @throws NumberFormatException Result does not fit into a positive long
+     */
+    private static long join(long high, int lowBits, long low){
+        if(high != 0 && bitLength(high) + lowBits > 63){
+            throw new NumberFormatException("ID too long");
+        }
+        return (high << lowBits) | low;
+    }
+    /**
+     * Builds the ID of a DV4 subfield: first 2 hex digits of the parent ID, followed by the index and the type in hex.
+     * Index and type take as many hex digits as they need.
+     * @param parentId ID of composite field
+     * @param index Index of subfield, starting with 1
+     * @param type Type of subfield
+     * @return Subfield ID
+     */
+    static long dv4SubId(long parentId, int index, int type){
+        int digits = hexLength(parentId);
+        if(digits < 2){
+            throw new IndexOutOfBoundsException("ID too short: " + parentId);
+        }
+        int subType = idSubType(type);
+        long base = parentId >>> ((digits - 2) * 4);
+        long id = (base << (hexLength(index) * 4)) | index;
+        id = (id << (hexLength(subType) * 4)) | subType;
+        if(id > Integer.MAX_VALUE){
+            throw new NumberFormatException("ID too long");
+        }
+        return id;
+    }
+    /**
+     * Builds the ID of a SkyNavigator subfield that also exists as a separate field: the type replaces the highest set bit of the base ID.
+     * @param baseId Subfield ID without type
+     * @param type Type of subfield
+     * @return Subfield ID
+     */
+    static long skyNavSubId(long baseId, int type){
+        int rest = bitLength(baseId) - 1;
+        long low = rest == 0 ? 0 : baseId & (-1L >>> (64 - rest));
+        return join(idSubType(type), rest, low);
+    }
+    /**
+     * Builds the virtual ID of a SkyNavigator subfield that only exists within its packet:
+     * the type replaces the highest set bit of the parent ID and the index is appended as 8 bits (more if needed).
+     * @param parentId ID of composite field
+     * @param index Index of subfield, starting with 1
+     * @param type Type of subfield
+     * @return Subfield ID
+     */
+    static long skyNavSolidSubId(long parentId, int index, int type){
+        long id = skyNavSubId(parentId, type);
+        return join(id, Math.max(8, bitLength(index)), index);
+    }
+    /**
+     * Base for the subfield IDs of a SkyNavigator GPS field: the binary digits 5 to 11 of the ID, read as a decimal number.
+     * Subfield IDs are this base followed by one hex digit. Kept for compatibility with existing IDs.
+     * @param id ID of GPS field
+     * @return Base value
+     * @throws IndexOutOfBoundsException ID with less than 12 bits
+     */
+    static int skyNavGpsBase(long id){
+        int length = bitLength(id);
+        if(length < 12){
+            throw new IndexOutOfBoundsException("ID too short: " + id);
+        }
+        int digits = (int)(id >>> (length - 12)) & 0x7F;
+        int base = 0;
+        for(int bit = 6; bit >= 0; bit--){
+            base = base * 10 + ((digits >>> bit) & 1);
+        }
+        return base;
+    }
+    /**
+     * Builds the ID of a virtual array field: the ID of its first element with an extra hex digit A.
+     * @param startId ID of first element
+     * @return Virtual field ID
+     */
+    static long virtualId(long startId){
+        if(startId < 0 || startId > (Long.MAX_VALUE >>> 4)){
+            throw new NumberFormatException("ID too long");
+        }
+        return (startId << 4) | 0xA;
+    }
+}
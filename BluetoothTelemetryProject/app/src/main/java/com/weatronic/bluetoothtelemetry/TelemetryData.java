@@ -8,24 +8,18 @@ import android.content.Context;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Vector;
 
 /**
  * A class representing a generic telemetry data field.
  * The fields and functions in this class are common for every field.
- * Also contains high-level static variables.
+ * Also contains protocol and data type constants.
  * Further separated into {@link TelemetryDataSimple simple} and {@link TelemetryDataComposite composite} fields.
  */
 abstract class TelemetryData{
     static final int PROTOCOL_DV4 = 1;
     static final int PROTOCOL_SKYNAVIGATOR = 2;
-    /**
-     * Currently used protocol.
-     * Some actions are done differently based on protocol.
-     */
-    static int protocol = PROTOCOL_DV4;
     /**
      * Integer constant for data type IDs. The list goes on...
      */
@@ -62,56 +56,32 @@ abstract class TelemetryData{
      */
     TelemetryDataComposite parent = null;
     /**
-     * List of all fields mapped to IDs.
+     * Dense index of the field among all fields of its container, in order of construction.
+     * Used to track changed fields in bit sets, see {@link ChangedFields}.
      */
-    protected static HashMap<Long, TelemetryData> fields = new HashMap<>();
+    int slot;
     /**
-     * List of all field IDs mapped to field names for reverse searching.
+     * Container whose fields are being constructed; new fields register there.
+     * Only set while a container is built, see {@link TelemetryDataContainer#build(Context, int)}.
+     * Fields, their IDs and names are kept by the container, see {@link TelemetryDataContainer#fields}.
      */
-    protected static HashMap<String, Long> nameToId = new HashMap<>();
-
-
-    //for simulation, to be able to get random IDs
-    public static Vector<Long> idList = new Vector<>();
+    static TelemetryDataContainer building = null;
+    /**
+     * Resets what the UI keeps in the field, as on a newly built field. Called when the catalog is switched to again.
+     */
+    void resetViewState(){
+    }
 
 
     /**
      * Field type is usually contained in field ID.
+     * DV4: last hex digit; SkyNavigator: first 5 bits, see {@link TelemetryCodec#typeOf(long, int)}.
+     * Uses the protocol of the container being built, so only valid while fields are constructed.
      * @param ID field ID
      * @return Type ID
      */
     public static int idToType(long ID){
-        if(ID == 0){
-            return 0;
-        }
-        if(protocol == PROTOCOL_DV4){
-            String hexStr = Long.toHexString(ID);
-            String typeChar = hexStr.substring(hexStr.length() - 1);
-            int type;
-            try {
-                type = Integer.parseInt(typeChar, 16);
-            }catch(Exception e){
-                //assume unsigned word - use value as is
-                type = UNSIGNED_WORD;
-            }
-            return type;
-        }else{
-            //SkyNavigator
-            String binStr = Long.toBinaryString(ID);
-            String hexStr = Long.toHexString(ID);
-            while(binStr.length() < 4 * hexStr.length()){
-                binStr = "0" + binStr;
-            }
-            String typeBits = binStr.substring(0, 5);
-            int type;
-            try {
-                type = Integer.parseInt(typeBits, 2);
-            }catch(Exception e){
-                //assume unsigned word - use value as is
-                type = UNSIGNED_WORD;
-            }
-            return type;
-        }
+        return TelemetryCodec.typeOf(ID, building.protocol);
     }
     /**
      * Simplest possible constructor.
@@ -121,10 +91,7 @@ abstract class TelemetryData{
         this.ID = ID;
         this.name = name;
         this.type = idToType(ID);
-        fields.put(ID, this);
-        nameToId.put(name, ID);
-        //for simulation
-        idList.add(ID);
+        this.slot = building.register(this);
     }
     /**
      * Converts unsigned numbers to signed.
@@ -132,38 +99,13 @@ abstract class TelemetryData{
      * An unsigned variable can therefore contain a 2x larger number, but only positive.
      * This function gets the maximum possible value of a signed number of given length by removing the first bit (FF -> 7F).
      * If given unsigned number is larger than that, the value "above limit" is substracted from 0.
-     * Note: hex-strings of course have no sign and always return positive numbers on parse.
+     * @see TelemetryCodec#toSigned(long, int)
      * @param value unsigned value to be converted
      * @param sizeBytes Based on type, e.g. 2 bytes for Signed Short
      * @return Signed number
      */
     public static long unsignedToSigned(long value, int sizeBytes){
-        String maxPositiveStr = "7F";
-        for(int i = 1; i < sizeBytes; i++){
-            maxPositiveStr += "FF";
-        }
-        long maxPositive = Long.parseLong(maxPositiveStr, 16);
-        if(value > maxPositive){
-            value = 0 - (value - maxPositive);
-        }
-        return value;
-    }
-    /**
-     * Swaps the order of bytes from LE to BE.
-     * In Bluetooth messages, the hex numbers are sent as little-endian. To properly convert them to Java integers, the byte order must be changed.
-     * The string is split into bytes (two hex symbols) and built again in reverse order.
-     * @param little Little-endian hex string
-     * @return Big-endian hex string
-     */
-    public static String littleToBigEndian(String little){
-        String big = "";
-        String curByte;
-        for(int i = 0; i < little.length(); i += 2){
-            curByte = little.substring(i, i+2);
-            big = curByte.concat(big);
-        }
-        //Log.i("", little + " <-> " + big);
-        return big;
+        return TelemetryCodec.toSigned(value, sizeBytes);
     }
     /**
      * Returns size in bytes for each data type. Sizes are fixed.
@@ -222,36 +164,118 @@ abstract class TelemetryData{
  * A class representing a basic telemetry data field that contains one value.
  */
 abstract class TelemetryDataSimple extends TelemetryData{
-    /**
-     * Value of the field before field-specific conversion.
-     * All simple data is transmitted as one integer number.
-     * long (8 byte) because Java only has signed types: unsigned int (4 byte) may cause integer overflow.
-     */
-    public long valueRaw;
-    /**
-     * {@link #adaptValue(long) "Adapted"} value, actual value to be displayed (int, float, String...)
-     */
-    Object value = 0;
     /**
      * Measuring units. Can me empty.
      */
     String units = "";
     /**
      * Sets the field's value using field-specific conversion.
+     * The value is kept in the session's store at {@link #slot}, see {@link ValueStore}: both the value before
+     * field-specific conversion and the {@link #adaptValue(long) "adapted"} value.
+     * All simple data is transmitted as one integer number, stored as long because Java only has signed types.
+     * @param values Values of the session
      * @param value Raw numeric value after protocol-specific conversion
      */
-    public void setValue(long value){
+    public void setValue(ValueStore values, long value){
         if(isSigned(type)){
             value = unsignedToSigned(value, sizeByType(type));
         }
-        this.valueRaw = value;
-        this.value = adaptValue(value);
+        values.set(slot, value, adaptValue(value));
     }
     /**
      * Converts raw numeric value into actual value to be displayed.
      * Unique for each child class.
      */
-    protected abstract Object adaptValue(long value);
+    protected abstract double adaptValue(long value);
+    /**
+     * The getters return the value as of the last update of the instruments, see {@link ValueStore#takeSnapshot()}.
+     * @param values Values of the session
+     * @return Value before field-specific conversion
+     */
+    public long getRaw(ValueStore values){
+        return values.getRaw(slot);
+    }
+    /**
+     * @param values Values of the session
+     * @return Time the current value was received, in {@link System#nanoTime()} time base; 0 if no value was received yet
+     */
+    public long getTime(ValueStore values){
+        return values.getTime(slot);
+    }
+    /**
+     * @param values Values of the session
+     * @return Value to be displayed
+     */
+    public double getDouble(ValueStore values){
+        return values.getDouble(slot);
+    }
+    /**
+     * @param values Values of the session
+     * @return Value to be displayed, as float
+     */
+    public float getFloat(ValueStore values){
+        return values.getFloat(slot);
+    }
+    /**
+     * @param values Values of the session
+     * @return Value to be displayed, without fractional part
+     */
+    public long getLong(ValueStore values){
+        return values.getLong(slot);
+    }
+    /**
+     * Starts keeping the recent values of this field, or shares the history if it is already kept.
+     * Each call must be matched by {@link #unsubscribeHistory(ValueStore)}.
+     * @param values Values of the session
+     * @return History of this field
+     */
+    public FieldHistory subscribeHistory(ValueStore values){
+        return values.histories.subscribe(slot);
+    }
+    /**
+     * Ends a {@link #subscribeHistory(ValueStore) subscription}. The history is dropped with the last one.
+     * @param values Values of the session
+     */
+    public void unsubscribeHistory(ValueStore values){
+        values.histories.unsubscribe(slot);
+    }
+    /**
+     * @param values Values of the session
+     * @return History of this field, null if nobody subscribed to it
+     */
+    public FieldHistory getHistory(ValueStore values){
+        return values.histories.get(slot);
+    }
+    /**
+     * @return True if the value to be displayed has no fractional part
+     */
+    public boolean isIntegral(){
+        return true;
+    }
+    /**
+     * @param values Values of the session
+     * @return Value to be displayed, as text
+     */
+    public String getText(ValueStore values){
+        if(isIntegral()){
+            return Long.toString(getLong(values));
+        }
+        return Float.toString(getFloat(values));
+    }
+    /**
+     * Adds the value to be displayed to a text, without creating strings: whole numbers as they are,
+     * others to 2 decimal places as <code>String.format("%.2f")</code> would.
+     * @param values Values of the session
+     * @param out Text to append to
+     * @param separator Decimal separator of the locale
+     * @return The text
+     */
+    TextBuffer appendValue(ValueStore values, TextBuffer out, char separator){
+        if(isIntegral()){
+            return out.append(getLong(values));
+        }
+        return out.appendFixed(getFloat(values), 2, separator);
+    }
     /**
      * Basic constructor.
      * @see TelemetryData#TelemetryData(long, String)
@@ -266,22 +290,59 @@ abstract class TelemetryDataSimple extends TelemetryData{
  */
 class TelemetryDataTimestamp extends TelemetryDataSimple{
     /**
-     * Converts raw value (timestamp) into readable date/time string.
+     * Formatter, created when the text is first read.
+     */
+    private DateFormat format = null;
+    /**
+     * Raw value {@link #text} was formatted from.
+     */
+    private long textRaw;
+    /**
+     * Last formatted text, null if not formatted yet. Only used on the UI thread.
+     */
+    private String text = null;
+    /**
+     * The timestamp is kept as is, see {@link #getText(ValueStore)}.
      * @param value Raw value
-     * @return Date/time string
+     * @return Timestamp in seconds
      */
     @Override
-    protected String adaptValue(long value){
-        long tsMilliseconds = value * 1000;
+    protected double adaptValue(long value){
+        return value;
+    }
+    /**
+     * Converts raw value (timestamp) into readable date/time string.
+     * Formatted only when read, and again only after the value changed.
+     * @return Date/time string, the plain numeric value until a value was received
+     */
+    @Override
+    public String getText(ValueStore values){
+        if(getTime(values) == 0){
+            //nothing received yet: not a date
+            return super.getText(values);
+        }
+        long raw = getRaw(values);
+        if(text != null && raw == textRaw){
+            return text;
+        }
         try{
-            Locale here = Locale.getDefault();
-            DateFormat sdf = new SimpleDateFormat("dd.MM.yyyy, HH:mm:ss", here);
-            Date netDate = (new Date(tsMilliseconds));
-            return sdf.format(netDate);
+            if(format == null){
+                format = new SimpleDateFormat("dd.MM.yyyy, HH:mm:ss", Locale.getDefault());
+            }
+            text = format.format(new Date(raw * 1000));
         }
         catch(Exception ex){
-            return "error";
+            text = "error";
         }
+        textRaw = raw;
+        return text;
+    }
+    /**
+     * Drops the formatted text.
+     */
+    @Override
+    void resetViewState(){
+        text = null;
     }
     /**
      * Basic constructor.
@@ -298,21 +359,51 @@ class TelemetryDataTimestamp extends TelemetryDataSimple{
  */
 class TelemetryDataMsUTC extends TelemetryDataSimple{
     /**
-     * Converts raw value (timestamp) into readable time string.
+     * Characters of the last formatted text.
+     */
+    private final char[] textChars = new char[TimeOfDayFormatter.LENGTH];
+    /**
+     * Raw value {@link #text} was formatted from.
+     */
+    private long textRaw;
+    /**
+     * Last formatted text, null if not formatted yet. Only used on the UI thread.
+     */
+    private String text = null;
+    /**
+     * The time is kept as is, see {@link #getText(ValueStore)}.
      * @param value Raw value
-     * @return Time string
+     * @return Time in milliseconds
      */
     @Override
-    protected String adaptValue(long value){
-        try{
-            Locale here = Locale.getDefault();
-            DateFormat sdf = new SimpleDateFormat("HH:mm:ss.SSS", here);
-            Date netDate = (new Date(value));
-            return sdf.format(netDate);
+    protected double adaptValue(long value){
+        return value;
+    }
+    /**
+     * Converts raw value (timestamp) into readable time string, HH:mm:ss.SSS.
+     * Formatted only when read, and again only after the value changed.
+     * @return Time string, the plain numeric value until a value was received
+     */
+    @Override
+    public String getText(ValueStore values){
+        if(getTime(values) == 0){
+            //nothing received yet: not a time of day
+            return super.getText(values);
         }
-        catch(Exception ex){
-            return "error";
+        long raw = getRaw(values);
+        if(text == null || raw != textRaw){
+            TimeOfDayFormatter.format(raw, textChars, 0);
+            text = new String(textChars);
+            textRaw = raw;
         }
+        return text;
+    }
+    /**
+     * Drops the formatted text.
+     */
+    @Override
+    void resetViewState(){
+        text = null;
     }
     /**
      * Basic constructor.
@@ -346,17 +437,25 @@ class TelemetryDataNumber extends TelemetryDataSimple{
     int factorA;
     /**
      * Converts raw number into value to be displayed using conversion factors.
+     * Integer factors give an int result, others a float result.
      * @param value Raw value
      * @return Converted value
      */
     @Override
-    protected Object adaptValue(long value){
-        if(factorK % 1.0f == 0.0f){
+    protected double adaptValue(long value){
+        if(isIntegral()){
             return Math.round(factorK * value) + factorA;
         }else{
             return factorK * value + factorA;
         }
     }
+    /**
+     * @return True if the conversion factor is an integer
+     */
+    @Override
+    public boolean isIntegral(){
+        return factorK % 1.0f == 0.0f;
+    }
 
     public TelemetryDataNumber(long ID, String name, Number limitMin, Number limitMax, String units){
         this(ID, name, limitMin, limitMax, units, 1, 0);
@@ -388,10 +487,11 @@ class TelemetryDataBitmask extends TelemetryDataNumber{
     int sizeBits = 8;
     /**
      * Converts numeric value into bitmask string.
+     * @param values Values of the session
      * @return Bitmask string
      */
-    protected String getBits() {
-        String bits = Integer.toBinaryString((int)value);
+    protected String getBits(ValueStore values) {
+        String bits = Integer.toBinaryString((int)getLong(values));
         while(bits.length() < sizeBits){
             bits = "0" + bits;
         }
@@ -433,43 +533,42 @@ class TelemetryDataNumberValidFlag extends TelemetryDataNumber{
     }
     /**
      * Returns true if the bit at specified position is 1 and the number is therefore valid.
+     * The position is counted from the highest set bit.
      * @param valueRaw Raw value
      */
     private boolean isValid(long valueRaw){
-        String bits = Long.toBinaryString(valueRaw);
-        char flag = bits.charAt(this.flagPos);
-        return flag == '1';
+        return TelemetryCodec.flagSet(valueRaw, this.flagPos);
     }
     /**
      * Removes the bit that is a flag from the number.
      * The flag is not part of the number proper.
      */
     private long removeFlag(long raw){
-        String bits = Long.toBinaryString(raw);
-        StringBuilder sb = new StringBuilder(bits);
-        sb.deleteCharAt(this.flagPos);
-        bits = sb.toString();
-        return Long.parseLong(bits, 2);
+        return TelemetryCodec.removeFlag(raw, this.flagPos);
     }
     /**
-     * Checks the flag and converts raw value into value to be displated.
-     * @param value Raw value
+     * Checks the flag; if it is not set, the raw value is kept, but the value to be displayed stays the old one.
+     * @see TelemetryDataSimple#setValue(ValueStore, long)
+     */
+    @Override
+    public void setValue(ValueStore values, long value){
+        long signed = isSigned(type) ? unsignedToSigned(value, sizeByType(type)) : value;
+        if(!isValid(signed)){
+            //keep old value/ignore invalid message
+            values.set(slot, signed, values.getLatest(slot));
+            return;
+        }
+        super.setValue(values, value);
+    }
+    /**
+     * Converts raw value of a valid message into value to be displated.
+     * @param value Raw value, flag set
      * @return Converted value
      * @see TelemetryDataNumber#adaptValue(long)
      */
     @Override
-    public Object adaptValue(long value){
-        if(isValid(value)){
-            value = removeFlag(valueRaw);
-        }else{
-            //return old value/ignore invalid message
-            return this.value;
-        }
-        if(factorK % 1.0f == 0.0f){
-            return Math.round(factorK * value) + factorA;
-        }else{
-            return factorK * value + factorA;
-        }
+    public double adaptValue(long value){
+        return super.adaptValue(removeFlag(value));
     }
 }
 /**
@@ -489,6 +588,18 @@ abstract class TelemetryDataComposite extends TelemetryData{
      * Used in GUI to expand/contract the list of subfields.
      */
     boolean showingChildren = false;
+    /**
+     * Subfields in order of their values, see {@link #updateParentForSubfields()}.
+     */
+    private TelemetryDataSimple[] parts = new TelemetryDataSimple[0];
+    /**
+     * Position of the value of each subfield, in hex digits from the start of the composite value.
+     */
+    private int[] offsets = new int[0];
+    /**
+     * Length of the value of each subfield in hex digits.
+     */
+    private int[] widths = new int[0];
     /**
      * Basic constructor.
      * @see TelemetryData#TelemetryData(long, String)
@@ -496,6 +607,13 @@ abstract class TelemetryDataComposite extends TelemetryData{
     public TelemetryDataComposite(long ID, String name){
         super(ID, name);
     }
+    /**
+     * Collapses the list of subfields.
+     */
+    @Override
+    void resetViewState(){
+        showingChildren = false;
+    }
     /**
      * Creates a subfield for this composite field.
      * @param ID ID of parent field
@@ -505,39 +623,59 @@ abstract class TelemetryDataComposite extends TelemetryData{
     abstract protected long newSubField(long ID, int type);
     /**
      * Sets the the values of each subfield.
-     * The input string is separated into blocks of length correspoding to subfield size;
-     * Each block is converted by each subfield's {@link TelemetryDataSimple#setValue(long) setter function}.
-     * @param inputString Raw string containing all values for this composite field
-     */
-    public void setValues(String inputString){
-        int curPos = 0, endPos;
-        TelemetryDataSimple field;
-        String piece;
-        for(int i = 0; i < subfields.size(); i++){
+     * The input is separated into blocks of length correspoding to subfield size, at the offsets computed once by {@link #updateParentForSubfields()};
+     * Each block is decoded straight from the buffer and converted by each subfield's {@link TelemetryDataSimple#setValue(ValueStore, long) setter function}.
+     * @param values Values of the session
+     * @param buf Buffer containing all values for this composite field as raw hex digits
+     * @param from Index of first digit
+     * @param to Index after last digit
+     */
+    public void setValues(ValueStore values, byte[] buf, int from, int to){
+        int length = to - from;
+        int start;
+        long value;
+        for(int i = 0; i < parts.length; i++){
+            start = from + offsets[i];
+            if(offsets[i] + widths[i] > length){
+                //input too short for this and all following subfields
+                break;
+            }
+            value = HexDecoder.parseLittleEndian(buf, start, start + widths[i]);
+            if(value == HexDecoder.INVALID){
+                //invalid digits
+                continue;
+            }
             try {
-                field = subfields.get(i);
-                endPos = curPos + sizeByType(field.type) * 2;
-                piece = inputString.substring(curPos, endPos);
-                curPos = endPos;
-                field.setValue(Long.parseLong(TelemetryData.littleToBigEndian(piece), 16));
+                parts[i].setValue(values, value);
             }catch(Exception e){
-                //invalid input string
+                //invalid value
             }
         }
     }
     /**
      * After all subfields are created, this method sets the {@link TelemetryData#parent} field for each subfield.
      * A tradeoff to keep the number of parameters for {@link #newSubField(long, int)} minimal.
+     * Also computes where the value of each subfield lies in the composite value, for {@link #setValues(ValueStore, byte[], int, int)}.
      */
     protected void updateParentForSubfields(){
         long id;
         TelemetryDataSimple child;
         for(int i = 0; i < children.size(); i++){
             id = children.get(i);
-            child = (TelemetryDataSimple)TelemetryData.fields.get(id);
+            child = (TelemetryDataSimple)building.fields.get(id);
             if(child.parent == null)
                 child.parent = this;
         }
+        int count = subfields.size();
+        parts = subfields.toArray(new TelemetryDataSimple[count]);
+        offsets = new int[count];
+        widths = new int[count];
+        int offset = 0;
+        for(int i = 0; i < count; i++){
+            offsets[i] = offset;
+            widths[i] = sizeByType(parts[i].type) * 2;
+            offset += widths[i];
+        }
     }
 }
 /**
@@ -559,15 +697,7 @@ class TelemetryDataCompositeDV4 extends TelemetryDataComposite{
      */
     @Override
     protected long newSubField(long ID, int type){
-        String baseId = Long.toHexString(ID).substring(0, 2);
-        //virtual type, not used in IDs
-        int subType;
-        if(type == SIGNED_12BIT)
-            subType = SIGNED_SHORT;
-        else
-            subType = type;
-        String finalIdStr = baseId + Integer.toHexString(subfields.size() + 1) + Integer.toHexString(subType);
-        long finalId = Integer.parseInt(finalIdStr, 16);
+        long finalId = TelemetryCodec.dv4SubId(ID, subfields.size() + 1, type);
         this.children.add(finalId);
         return finalId;
     }
@@ -643,16 +773,7 @@ class TelemetryDataCompositeSkyNavReferential extends TelemetryDataComposite{
      */
     @Override
     protected long newSubField(long ID, int type){
-        String baseID = Long.toBinaryString(ID);
-        baseID = baseID.substring(1, baseID.length());
-        //virtual type, not used in IDs
-        int subType;
-        if(type == SIGNED_12BIT)
-            subType = SIGNED_SHORT;
-        else
-            subType = type;
-        String finalIdStr = Long.toBinaryString(subType) + baseID;
-        long finalId = Long.parseLong(finalIdStr, 2);
+        long finalId = TelemetryCodec.skyNavSubId(ID, type);
         this.children.add(finalId);
         return finalId;
     }
@@ -678,16 +799,15 @@ class TelemetryDataGPS_SkyNav extends TelemetryDataCompositeSkyNavReferential{
      */
     public TelemetryDataGPS_SkyNav(int ID, String name, Context ctx){
         super(ID, name);
-        int midBytes = Integer.parseInt(Long.toBinaryString(ID).substring(5, 12));
-        String midBytesStr = Integer.toHexString(midBytes);
-        subfields.add(new TelemetryDataNumber(newSubField(Long.parseLong(midBytesStr + "1", 16), SIGNED_WORD), this.name + " " + ctx.getResources().getString(R.string.Latitude), -90, 90, "°", (1.0f / 6000000.0f)));
-        subfields.add(new TelemetryDataNumber(newSubField(Long.parseLong(midBytesStr + "2", 16), SIGNED_WORD), this.name + " " + ctx.getResources().getString(R.string.Longitude), -180, 180, "°", (1.0f / 6000000.0f)));
-        subfields.add(new TelemetryDataNumber(newSubField(Long.parseLong(midBytesStr + "3", 16), UNSIGNED_BYTE), this.name + " " + ctx.getResources().getString(R.string.Speed), 0, 60, "kn", 0.1f));
-        subfields.add(new TelemetryDataNumber(newSubField(Long.parseLong(midBytesStr + "4", 16), SIGNED_SHORT), this.name + " " + ctx.getResources().getString(R.string.Altitude), -1000, 8000, "m", 0.1f));
-        subfields.add(new TelemetryDataNumber(newSubField(Long.parseLong(midBytesStr + "5", 16), UNSIGNED_SHORT), this.name + " " + ctx.getResources().getString(R.string.Course), 0, 360, "°", 0.01f));
-        subfields.add(new TelemetryDataMsUTC(newSubField(Long.parseLong(midBytesStr + "8", 16), UNSIGNED_WORD), this.name + " " + ctx.getResources().getString(R.string.UTC)));
-        subfields.add(new TelemetryDataNumber(newSubField(Long.parseLong(midBytesStr + "9", 16), UNSIGNED_BYTE), this.name + " " + ctx.getResources().getString(R.string.FracUTC), 0, 996, "ms", 4.0f));
-        subfields.add(new TelemetryDataNumber(newSubField(Long.parseLong(midBytesStr + "A", 16), SIGNED_SHORT), this.name + " " + ctx.getResources().getString(R.string.AltitudeRelative), -1000, 8000, "m", 0.1f));
+        long midBytes = (long)TelemetryCodec.skyNavGpsBase(ID) << 4;
+        subfields.add(new TelemetryDataNumber(newSubField(midBytes | 0x1, SIGNED_WORD), this.name + " " + ctx.getResources().getString(R.string.Latitude), -90, 90, "°", (1.0f / 6000000.0f)));
+        subfields.add(new TelemetryDataNumber(newSubField(midBytes | 0x2, SIGNED_WORD), this.name + " " + ctx.getResources().getString(R.string.Longitude), -180, 180, "°", (1.0f / 6000000.0f)));
+        subfields.add(new TelemetryDataNumber(newSubField(midBytes | 0x3, UNSIGNED_BYTE), this.name + " " + ctx.getResources().getString(R.string.Speed), 0, 60, "kn", 0.1f));
+        subfields.add(new TelemetryDataNumber(newSubField(midBytes | 0x4, SIGNED_SHORT), this.name + " " + ctx.getResources().getString(R.string.Altitude), -1000, 8000, "m", 0.1f));
+        subfields.add(new TelemetryDataNumber(newSubField(midBytes | 0x5, UNSIGNED_SHORT), this.name + " " + ctx.getResources().getString(R.string.Course), 0, 360, "°", 0.01f));
+        subfields.add(new TelemetryDataMsUTC(newSubField(midBytes | 0x8, UNSIGNED_WORD), this.name + " " + ctx.getResources().getString(R.string.UTC)));
+        subfields.add(new TelemetryDataNumber(newSubField(midBytes | 0x9, UNSIGNED_BYTE), this.name + " " + ctx.getResources().getString(R.string.FracUTC), 0, 996, "ms", 4.0f));
+        subfields.add(new TelemetryDataNumber(newSubField(midBytes | 0xA, SIGNED_SHORT), this.name + " " + ctx.getResources().getString(R.string.AltitudeRelative), -1000, 8000, "m", 0.1f));
         updateParentForSubfields();
     }
 }
@@ -745,20 +865,7 @@ class TelemetryDataCompositeSkyNavSolid extends TelemetryDataComposite{
      */
     @Override
     protected long newSubField(long ID, int type){
-        String baseID = Long.toBinaryString(ID);
-        baseID = baseID.substring(1, baseID.length());
-        //virtual type, not used in IDs
-        int subType;
-        if(type == SIGNED_12BIT)
-            subType = SIGNED_SHORT;
-        else
-            subType = type;
-        String indexStr = Integer.toBinaryString(subfields.size() + 1);
-        while(indexStr.length() < 8){
-            indexStr = "0" + indexStr;
-        }
-        String finalIdStr = Integer.toBinaryString(subType) + baseID + indexStr;
-        long finalId = Long.parseLong(finalIdStr, 2);
+        long finalId = TelemetryCodec.skyNavSolidSubId(ID, subfields.size() + 1, type);
         this.children.add(finalId);
         return finalId;
     }
@@ -835,7 +942,7 @@ class TelemetryDataArrayVirtual extends TelemetryDataComposite{
     public TelemetryDataArrayVirtual(long startID, long diffID, String name, String elementName, int size, Number limitMin, Number limitMax, String units, float factorK, int factorA){
         //add fifth byte at the end for ID
         //no real field (or field generated by TelememetryDataCompositeSkyNavSolid) should overlap
-        super(Long.parseLong(Long.toHexString(startID) + "A", 16), name);
+        super(TelemetryCodec.virtualId(startID), name);
         long nextID;
         //build an ID and add it as child to the virtual field
         for(int i = 0; i < size; i++){
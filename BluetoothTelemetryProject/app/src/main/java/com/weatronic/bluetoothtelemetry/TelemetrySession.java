@@ -0,0 +1,82 @@
+package com.weatronic.bluetoothtelemetry;
+
+import android.content.Context;
+
+/**
+ * One telemetry link: the values of the fields of its protocol, and the {@link Parser} that decodes its messages.
+ * The fields are an immutable catalog shared by all sessions of the protocol; the values, their changes and histories
+ * are the session's own {@link ValueStore}. Sessions share no mutable state, so several links (e.g. two receivers, or a live link and a replay)
+ * can be decoded at the same time on separate threads, each by its own decoding thread.
+ * The UI uses the {@link #getInstance(Context) default session}, whose fields follow the protocol chosen by the user,
+ * see {@link TelemetryDataContainer#switchProtocol(Context, int)}.
+ */
+public class TelemetrySession {
+    /**
+     * Stores the default session to be returned.
+     * See {@link #getInstance(Context)}  getInstance}
+     */
+    private static TelemetrySession instance = null;
+    /**
+     * Values of the session, with the catalog of fields they belong to. Replaced when the protocol of the default session is switched.
+     */
+    private volatile ValueStore values;
+    /**
+     * Parser of the messages of this session.
+     */
+    private final Parser parser;
+    /**
+     * Returns the default session, used by the UI.
+     * Constructs it if it has not been constructed; otherwise returns the existing one.
+     * Its fields are set by {@link TelemetryDataContainer#switchProtocol(Context, int)}.
+     */
+    public static synchronized TelemetrySession getInstance(Context ctx){
+        if(instance == null){
+            instance = new TelemetrySession(null);
+        }
+        return instance;
+    }
+    /**
+     * Creates an independent session with values of its own.
+     * The fields are shared with the other sessions of the protocol, and only built if no session used them before.
+     * @param ctx Context of the calling activity. Needed to access <strings.xml>
+     * @param protocolID Protocol of the link
+     */
+    public TelemetrySession(Context ctx, int protocolID){
+        this(TelemetryDataContainer.getCatalog(ctx, protocolID));
+    }
+    /**
+     * Creates a session on given fields.
+     * @param catalog Fields of the protocol, may be set later for the default session
+     */
+    TelemetrySession(TelemetryDataContainer catalog){
+        this.values = catalog == null ? null : new ValueStore(catalog);
+        this.parser = new Parser(this);
+    }
+    /**
+     * @return Fields of this session, null if the default session has no protocol yet
+     */
+    public TelemetryDataContainer getContainer(){
+        ValueStore current = values;
+        return current == null ? null : current.catalog;
+    }
+    /**
+     * @return Values of this session, null if the default session has no protocol yet
+     */
+    ValueStore getValues(){
+        return values;
+    }
+    /**
+     * Replaces the values of this session, e.g. with empty ones of another catalog when switching protocols.
+     * The parser switches over with the next message.
+     * @param values New values
+     */
+    void setValues(ValueStore values){
+        this.values = values;
+    }
+    /**
+     * @return Parser of the messages of this session
+     */
+    public Parser getParser(){
+        return parser;
+    }
+}
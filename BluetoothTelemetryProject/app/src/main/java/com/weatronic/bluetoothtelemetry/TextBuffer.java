@@ -0,0 +1,199 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.Locale;
+
+/**
+ * Reusable text for drawing: a char array that text and numbers are written into without creating strings.
+ * Canvas and Paint take the characters directly, see {@link #chars()} and {@link #length()}.
+ * Grows when needed; once large enough, writing and drawing allocate nothing. Only used on the UI thread.
+ */
+final class TextBuffer {
+    /**
+     * Powers of ten that fit in a long.
+     */
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static{
+        POWERS_OF_TEN[0] = 1;
+        for(int i = 1; i < POWERS_OF_TEN.length; i++){
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    /**
+     * Characters of the text, the first {@link #length} are used.
+     */
+    private char[] chars;
+    /**
+     * Number of characters.
+     */
+    private int length = 0;
+
+    /**
+     * @param capacity Initial number of characters
+     */
+    TextBuffer(int capacity){
+        chars = new char[Math.max(capacity, 1)];
+    }
+    /**
+     * @return Characters of the text; only the first {@link #length()} are valid. May change when the text grows.
+     */
+    char[] chars(){
+        return chars;
+    }
+    /**
+     * @return Number of characters
+     */
+    int length(){
+        return length;
+    }
+    /**
+     * Empties the text, keeping the capacity.
+     * @return This buffer
+     */
+    TextBuffer clear(){
+        length = 0;
+        return this;
+    }
+    /**
+     * Makes room for more characters.
+     */
+    private void ensure(int more){
+        if(length + more > chars.length){
+            char[] grown = new char[Math.max(chars.length * 2, length + more)];
+            System.arraycopy(chars, 0, grown, 0, length);
+            chars = grown;
+        }
+    }
+    /**
+     * @return This buffer
+     */
+    TextBuffer append(char c){
+        ensure(1);
+        chars[length++] = c;
+        return this;
+    }
+    /**
+     * @param text Text to add, null adds nothing
+     * @return This buffer
+     */
+    TextBuffer append(String text){
+        if(text == null) return this;
+        ensure(text.length());
+        text.getChars(0, text.length(), chars, length);
+        length += text.length();
+        return this;
+    }
+    /**
+     * @param text Characters to add
+     * @param from Index of the first character
+     * @param count Number of characters
+     * @return This buffer
+     */
+    TextBuffer append(char[] text, int from, int count){
+        ensure(count);
+        System.arraycopy(text, from, chars, length, count);
+        length += count;
+        return this;
+    }
+    /**
+     * Adds a whole number in decimal, like {@link Long#toString(long)}.
+     * @return This buffer
+     */
+    TextBuffer append(long value){
+        if(value == Long.MIN_VALUE){
+            //no positive counterpart
+            return append("-9223372036854775808");
+        }
+        if(value < 0){
+            append('-');
+            value = -value;
+        }
+        int digits = 1;
+        while(digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]){
+            digits++;
+        }
+        ensure(digits);
+        for(int i = length + digits - 1; i >= length; i--){
+            chars[i] = (char)('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+    /**
+     * Adds a number in upper case hex, like {@link Long#toHexString(long)} in upper case.
+     * @return This buffer
+     */
+    TextBuffer appendHex(long value){
+        int digits = Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 3) / 4);
+        ensure(digits);
+        for(int i = length + digits - 1; i >= length; i--){
+            chars[i] = Character.toUpperCase(Character.forDigit((int)(value & 0xF), 16));
+            value >>>= 4;
+        }
+        length += digits;
+        return this;
+    }
+    /**
+     * Adds a number with a fixed number of decimal places, like <code>String.format("%.2f", value)</code> for 2 places:
+     * rounded half up, negative values that round to zero keep their sign.
+     * String.format rounds the shortest decimal representation of the value, not its exact binary value, so the two
+     * can differ when the value is within rounding error of a tie (e.g. 1.005). Such values are formatted by String.format.
+     * @param value Number to add
+     * @param decimals Number of decimal places, 0 to 9
+     * @param separator Decimal separator of the locale
+     * @return This buffer
+     */
+    TextBuffer appendFixed(double value, int decimals, char separator){
+        if(Double.isNaN(value)){
+            return append("NaN");
+        }
+        if(Double.compare(value, 0.0) < 0){
+            append('-');
+            value = -value;
+        }
+        if(Double.isInfinite(value)){
+            return append("Infinity");
+        }
+        double scaled = value * POWERS_OF_TEN[decimals];
+        if(scaled >= 1e18){
+            //too large for a long, only digits before the separator matter anyway
+            return appendFormatted(value, decimals, separator);
+        }
+        long rounded = (long)scaled;
+        double fraction = scaled - rounded;
+        if(Math.abs(fraction - 0.5) <= 4 * Math.ulp(scaled)){
+            //too close to a tie to decide from the binary value
+            return appendFormatted(value, decimals, separator);
+        }
+        if(fraction > 0.5){
+            rounded++;
+        }
+        append(rounded / POWERS_OF_TEN[decimals]);
+        if(decimals > 0){
+            append(separator);
+            long digits = rounded % POWERS_OF_TEN[decimals];
+            ensure(decimals);
+            for(int i = length + decimals - 1; i >= length; i--){
+                chars[i] = (char)('0' + digits % 10);
+                digits /= 10;
+            }
+            length += decimals;
+        }
+        return this;
+    }
+    /**
+     * Adds a non-negative number formatted by String.format, for the rare values {@link #appendFixed(double, int, char)} cannot
+     * format by itself. Allocates.
+     */
+    private TextBuffer appendFormatted(double value, int decimals, char separator){
+        String text = String.format(Locale.ROOT, "%." + decimals + "f", value);
+        int start = length;
+        append(text);
+        for(int i = start; i < length; i++){
+            if(chars[i] == '.'){
+                chars[i] = separator;
+            }
+        }
+        return this;
+    }
+}
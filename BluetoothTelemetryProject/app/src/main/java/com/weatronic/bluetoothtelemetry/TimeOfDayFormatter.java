@@ -0,0 +1,52 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.TimeZone;
+
+/**
+ * Formats milliseconds since the epoch as local time of day, "HH:mm:ss.SSS", into a char array.
+ * Same result as {@link java.text.SimpleDateFormat} with this pattern, without creating formatter, calendar or date objects.
+ */
+final class TimeOfDayFormatter {
+    /**
+     * Number of characters written.
+     */
+    static final int LENGTH = 12;
+    /**
+     * Milliseconds per day.
+     */
+    private static final long DAY_MS = 86400000L;
+
+    private TimeOfDayFormatter(){
+    }
+    /**
+     * Writes the local time of day.
+     * @param ms Milliseconds since the epoch
+     * @param dest Target array, needs {@link #LENGTH} characters from offset
+     * @param offset Index of the first character
+     */
+    static void format(long ms, char[] dest, int offset){
+        long local = ms + TimeZone.getDefault().getOffset(ms);
+        int time = (int)(local % DAY_MS);
+        if(time < 0){
+            //before the epoch
+            time += DAY_MS;
+        }
+        int millis = time % 1000;
+        time /= 1000;
+        putTwoDigits(dest, offset, time / 3600);
+        dest[offset + 2] = ':';
+        putTwoDigits(dest, offset + 3, time / 60 % 60);
+        dest[offset + 5] = ':';
+        putTwoDigits(dest, offset + 6, time % 60);
+        dest[offset + 8] = '.';
+        dest[offset + 9] = (char)('0' + millis / 100);
+        putTwoDigits(dest, offset + 10, millis % 100);
+    }
+    /**
+     * Writes a number from 0 to 99 with a leading zero.
+     */
+    private static void putTwoDigits(char[] dest, int offset, int value){
+        dest[offset] = (char)('0' + value / 10);
+        dest[offset + 1] = (char)('0' + value % 10);
+    }
+}
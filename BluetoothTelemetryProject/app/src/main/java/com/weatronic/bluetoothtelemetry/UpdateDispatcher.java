@@ -0,0 +1,172 @@
+package com.weatronic.bluetoothtelemetry;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers value changes to the instruments at most once per display frame.
+ * Any number of {@link #requestUpdate() requests} between two frames, from any thread, result in one {@link Parser#publishUpdate()}.
+ * Frames are taken from {@link Choreographer} where available (API 16+), otherwise approximated with a {@link Handler}.
+ * The update rate of the dashboard can be limited further, see {@link #setMaxUpdateRate(float)}.
+ */
+class UpdateDispatcher {
+    /**
+     * Assumed display frame interval when Choreographer is not available, in milliseconds.
+     */
+    private static final long FALLBACK_FRAME_MS = 16;
+    /**
+     * Parser whose observers are notified.
+     */
+    private final Parser parser;
+    /**
+     * Handler of the UI thread.
+     */
+    private final Handler uiHandler;
+    /**
+     * Frame callbacks, null below API 16.
+     */
+    private final VsyncSource vsync;
+    /**
+     * True from the first request until the update is delivered.
+     */
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    /**
+     * Minimum time between two updates in nanoseconds, 0 for no limit besides the display frame rate.
+     */
+    private volatile long minIntervalNs = 0;
+    /**
+     * Time of the last delivered update. Only used on the UI thread.
+     */
+    private long lastDispatchNs = 0;
+    /**
+     * Number of requests. Requests come from the decoding thread and, for retries, the UI thread.
+     */
+    private final AtomicLong requests = new AtomicLong();
+    /**
+     * Number of delivered updates, written by the UI thread.
+     */
+    private volatile long dispatches = 0;
+    /**
+     * Schedules the next frame; posted to the UI thread by the first request.
+     */
+    private final Runnable scheduleRunnable = new Runnable() {
+        @Override
+        public void run(){
+            scheduleFrame(0);
+        }
+    };
+    /**
+     * Delivers the update when Choreographer is not available.
+     */
+    private final Runnable fallbackFrameRunnable = new Runnable() {
+        @Override
+        public void run(){
+            onFrame(System.nanoTime());
+        }
+    };
+    /**
+     * Class constructor. Must be called on the UI thread.
+     * @param parser Parser whose observers are notified
+     * @param uiHandler Handler of the UI thread
+     */
+    UpdateDispatcher(Parser parser, Handler uiHandler){
+        this.parser = parser;
+        this.uiHandler = uiHandler;
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN){
+            vsync = new VsyncSource();
+        }else{
+            vsync = null;
+        }
+    }
+    /**
+     * Requests an update with the next display frame. Can be called from any thread.
+     * Does nothing if an update is already pending.
+     */
+    void requestUpdate(){
+        requests.incrementAndGet();
+        if(pending.compareAndSet(false, true)){
+            uiHandler.post(scheduleRunnable);
+        }
+    }
+    /**
+     * Limits the update rate of the dashboard.
+     * @param maxRate Maximum updates per second; 0 to update with every display frame
+     */
+    void setMaxUpdateRate(float maxRate){
+        minIntervalNs = maxRate > 0 ? (long)(1000000000.0 / maxRate) : 0;
+    }
+    /**
+     * Waits for the next display frame, at least delayMs from now.
+     */
+    private void scheduleFrame(long delayMs){
+        if(vsync != null){
+            vsync.post(delayMs);
+        }else{
+            long sinceLast = (System.nanoTime() - lastDispatchNs) / 1000000;
+            uiHandler.postDelayed(fallbackFrameRunnable, Math.max(delayMs, FALLBACK_FRAME_MS - sinceLast));
+        }
+    }
+    /**
+     * Called on the UI thread with each requested frame. Delivers the update unless the rate limit requires waiting longer.
+     * @param frameTimeNs Frame time, in {@link System#nanoTime()} time base
+     */
+    private void onFrame(long frameTimeNs){
+        long elapsed = frameTimeNs - lastDispatchNs;
+        long interval = minIntervalNs;
+        if(elapsed < interval){
+            scheduleFrame((interval - elapsed) / 1000000);
+            return;
+        }
+        lastDispatchNs = frameTimeNs;
+        //cleared first, so values decoded meanwhile request the next frame
+        pending.set(false);
+        if(parser.publishUpdate()){
+            dispatches++;
+        }else{
+            //values were being written throughout, try again with the next frame
+            requestUpdate();
+        }
+    }
+    /**
+     * @return Number of update requests
+     */
+    public long getRequestCount(){
+        return requests.get();
+    }
+    /**
+     * @return Number of delivered updates. The difference to {@link #getRequestCount()} was saved by merging.
+     */
+    public long getDispatchCount(){
+        return dispatches;
+    }
+    /**
+     * Display frame callbacks. Separate class so that Choreographer is not loaded below API 16.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class VsyncSource implements Choreographer.FrameCallback {
+        /**
+         * Choreographer of the UI thread.
+         */
+        private final Choreographer choreographer = Choreographer.getInstance();
+        /**
+         * Requests a callback with the first frame after delayMs.
+         */
+        void post(long delayMs){
+            if(delayMs > 0){
+                choreographer.postFrameCallbackDelayed(this, delayMs);
+            }else{
+                choreographer.postFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos){
+            onFrame(frameTimeNanos);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.weatronic.bluetoothtelemetry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Values of all simple fields of a catalog, kept in primitive columns indexed by {@link TelemetryData#slot field slot}.
+ * The fields themselves are shared by all sessions of a protocol and hold no values; each {@link TelemetrySession session}
+ * has a store of its own, which is replaced with an empty one when the session switches protocols.
+ * The decoding thread writes a sample with {@link #set(int, long, double)}; instruments read it with the typed getters.
+ * Nothing is boxed, so setting and reading values allocates no objects.
+ * Fields with subscribed {@link #histories} also keep their recent samples.
+ * <p>
+ * Readers never see a partly decoded message. The decoding thread writes each message between {@link #beginWrite()} and
+ * {@link #endWrite()}, which count up a sequence number (odd while writing). Once per update, the UI thread
+ * {@link #takeSnapshot() copies} all values and keeps the copy only if the sequence number was even and unchanged throughout.
+ * The getters read that snapshot, so all instruments show the state after the same message, and the decoder is never blocked.
+ */
+class ValueStore {
+    /**
+     * Snapshot attempts before giving up and keeping the previous snapshot.
+     */
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 16;
+    /**
+     * Fields the values belong to.
+     */
+    final TelemetryDataContainer catalog;
+    /**
+     * Raw value of each slot, after signed conversion.
+     */
+    private final AtomicLongArray raw;
+    /**
+     * Converted value of each slot, the value to be displayed, as {@link Double#doubleToRawLongBits(double) bits}.
+     */
+    private final AtomicLongArray converted;
+    /**
+     * Receive time of the last sample of each slot, in {@link System#nanoTime()} time base.
+     */
+    private final AtomicLongArray times;
+    /**
+     * Number of slots.
+     */
+    private final int slots;
+    /**
+     * Write sequence number, odd while a message is being written. Only changed by the decoding thread.
+     */
+    private volatile long sequence = 0;
+    /**
+     * Snapshot read by the getters. Only used on the UI thread.
+     */
+    private Snapshot front;
+    /**
+     * Snapshot being taken. Only used on the UI thread.
+     */
+    private Snapshot back;
+    /**
+     * {@link #sequence} the front snapshot was taken at. Only used on the UI thread.
+     */
+    private long snapshotSequence = 0;
+    /**
+     * Fields changed since the last update of the instruments.
+     */
+    final ChangedFields changes;
+    /**
+     * Optional histories of the fields.
+     */
+    final FieldHistories histories = new FieldHistories();
+    /**
+     * Receive time of the samples being set, see {@link #setSampleTime(long)}. Only used by the decoding thread.
+     */
+    private long sampleTime = 0;
+
+    /**
+     * Creates an empty store: no values received yet, no changes, no histories.
+     * @param catalog Fields to hold the values of
+     */
+    ValueStore(TelemetryDataContainer catalog){
+        this.catalog = catalog;
+        slots = catalog.size();
+        int length = Math.max(slots, 1);
+        raw = new AtomicLongArray(length);
+        converted = new AtomicLongArray(length);
+        times = new AtomicLongArray(length);
+        front = new Snapshot(length);
+        back = new Snapshot(length);
+        changes = new ChangedFields(slots);
+    }
+    /**
+     * Starts writing a message. Called by the decoding thread, must be followed by {@link #endWrite()}.
+     */
+    void beginWrite(){
+        sequence = sequence + 1;
+    }
+    /**
+     * Ends writing a message; its values can now be taken into a snapshot.
+     */
+    void endWrite(){
+        sequence = sequence + 1;
+    }
+    /**
+     * Sets the receive time of the following samples, once per data message. Called by the decoding thread.
+     * @param timeNs Time in {@link System#nanoTime()} time base
+     */
+    void setSampleTime(long timeNs){
+        sampleTime = timeNs;
+    }
+    /**
+     * Stores a sample and adds it to the history of the field, if there is one.
+     * Called by the decoding thread between {@link #beginWrite()} and {@link #endWrite()}.
+     * @param slot Slot of the field
+     * @param rawValue Raw value
+     * @param value Converted value
+     */
+    void set(int slot, long rawValue, double value){
+        //ordered stores are enough: the odd sequence number is published before, the even one after them
+        raw.lazySet(slot, rawValue);
+        converted.lazySet(slot, Double.doubleToRawLongBits(value));
+        times.lazySet(slot, sampleTime);
+        FieldHistory history = histories.get(slot);
+        if(history != null){
+            history.add(sampleTime, value);
+        }
+    }
+    /**
+     * Reads the newest converted value, bypassing the snapshot. For the decoding thread.
+     * @param slot Slot of the field
+     * @return Converted value, 0 if none was set
+     */
+    double getLatest(int slot){
+        return Double.longBitsToDouble(converted.get(slot));
+    }
+    /**
+     * Copies the values of all completely written messages into the snapshot read by the getters.
+     * Called on the UI thread once per update. If the decoding thread keeps writing during every attempt,
+     * the previous snapshot is kept; values are never mixed from different messages.
+     * @return True if the snapshot was updated
+     */
+    boolean takeSnapshot(){
+        Snapshot target = back;
+        int count = slots;
+        long before;
+        for(int attempt = 0; attempt < MAX_SNAPSHOT_ATTEMPTS; attempt++){
+            before = sequence;
+            if((before & 1) != 0){
+                //message being written
+                Thread.yield();
+                continue;
+            }
+            for(int i = 0; i < count; i++){
+                target.raw[i] = raw.get(i);
+                target.converted[i] = Double.longBitsToDouble(converted.get(i));
+                target.times[i] = times.get(i);
+            }
+            if(sequence == before){
+                back = front;
+                front = target;
+                snapshotSequence = before;
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * @return True if a message was written since the last successful {@link #takeSnapshot()}. Called on the UI thread.
+     */
+    boolean isNewerThanSnapshot(){
+        return sequence != snapshotSequence;
+    }
+    /**
+     * @param slot Slot of the field
+     * @return Raw value, 0 if none was set
+     */
+    long getRaw(int slot){
+        return front.raw[slot];
+    }
+    /**
+     * @param slot Slot of the field
+     * @return Receive time of the last sample, in {@link System#nanoTime()} time base; 0 if none was set
+     */
+    long getTime(int slot){
+        return front.times[slot];
+    }
+    /**
+     * @param slot Slot of the field
+     * @return Converted value, 0 if none was set
+     */
+    double getDouble(int slot){
+        return front.converted[slot];
+    }
+    /**
+     * @param slot Slot of the field
+     * @return Converted value as float
+     */
+    float getFloat(int slot){
+        return (float)front.converted[slot];
+    }
+    /**
+     * @param slot Slot of the field
+     * @return Converted value without fractional part
+     */
+    long getLong(int slot){
+        return (long)front.converted[slot];
+    }
+    /**
+     * @return Number of slots
+     */
+    int size(){
+        return slots;
+    }
+    /**
+     * Copy of all values as of one point between two messages.
+     */
+    private static class Snapshot {
+        /**
+         * Raw value of each slot.
+         */
+        final long[] raw;
+        /**
+         * Converted value of each slot.
+         */
+        final double[] converted;
+        /**
+         * Receive time of each slot.
+         */
+        final long[] times;
+
+        Snapshot(int length){
+            raw = new long[length];
+            converted = new double[length];
+            times = new long[length];
+        }
+    }
+}
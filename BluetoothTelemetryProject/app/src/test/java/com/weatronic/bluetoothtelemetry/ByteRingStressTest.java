@@ -0,0 +1,238 @@
+package com.weatronic.bluetoothtelemetry;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a fast in-memory producer against the {@link ByteRing} and {@link FrameDecoder} the way
+ * {@link BluetoothService} and {@link DecodeThread} use them: the producer claims ring space, "reads" random sized chunks
+ * into it and commits them; the consumer drains the ring chunk by chunk into the frame decoder on another thread.
+ */
+public class ByteRingStressTest {
+    /**
+     * Bytes per second of a 115200 baud link (10 bits per byte).
+     */
+    private static final int LINK_RATE = 115200 / 10;
+    /**
+     * Read size of the producer, {@link BluetoothService} default.
+     */
+    private static final int READ_SIZE = 1024;
+
+    /**
+     * Frames of the test stream and what the consumer saw of them.
+     */
+    private static class Stream implements FrameDecoder.FrameListener {
+        /**
+         * All frames back to back, "\r\n" included.
+         */
+        final byte[] bytes;
+        /**
+         * Number of frames in {@link #bytes}.
+         */
+        final int frames;
+        /**
+         * Frames received with a valid checksum and exactly the content that was sent.
+         */
+        int intact = 0;
+        /**
+         * Frames received with a valid checksum but different content. Must stay 0.
+         */
+        int corrupted = 0;
+        /**
+         * Frames received with a wrong checksum.
+         */
+        int rejected = 0;
+        /**
+         * Sequence number of the last intact frame, must increase.
+         */
+        int lastSequence = -1;
+        /**
+         * True if an intact frame arrived out of order.
+         */
+        boolean reordered = false;
+
+        Stream(int frames, long seed){
+            this.frames = frames;
+            Random random = new Random(seed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] frame;
+            for(int i = 0; i < frames; i++){
+                frame = (frame(i, random.nextInt(40)) + "\r\n").getBytes();
+                out.write(frame, 0, frame.length);
+            }
+            bytes = out.toByteArray();
+        }
+        /**
+         * @param sequence Sequence number, first value of the frame
+         * @param extra Number of additional values, so that frames differ in length
+         * @return Frame with checksum, without "\r\n"
+         */
+        static String frame(int sequence, int extra){
+            StringBuilder text = new StringBuilder("$PWEAD0,").append(Integer.toHexString(sequence).toUpperCase());
+            for(int i = 0; i < extra; i++){
+                text.append(',').append(Integer.toHexString((sequence * 31 + i) & 0xFFFF).toUpperCase());
+            }
+            return Parser.appendChecksum(text.toString());
+        }
+
+        @Override
+        public void onFrame(byte[] buffer, int start, int end, long timeNs){
+            String received = new String(buffer, start, end - start);
+            int star = received.lastIndexOf('*');
+            if(star < 0 || !Parser.appendChecksum(received.substring(0, star)).equals(received)){
+                rejected++;
+                return;
+            }
+            String[] values = received.substring(0, star).split(",");
+            int sequence;
+            try{
+                sequence = Integer.parseInt(values[1], 16);
+            }catch(RuntimeException e){
+                corrupted++;
+                return;
+            }
+            if(sequence < 0 || sequence >= frames || !frame(sequence, values.length - 2).equals(received)){
+                corrupted++;
+                return;
+            }
+            if(sequence <= lastSequence){
+                reordered = true;
+            }
+            lastSequence = sequence;
+            intact++;
+        }
+    }
+
+    /**
+     * Consumer thread, drains the ring like {@link DecodeThread}.
+     */
+    private static class Consumer extends Thread {
+        final ByteRing ring;
+        final FrameDecoder decoder;
+        /**
+         * Time to spend per chunk, to simulate a slow decoder.
+         */
+        final long delayNs;
+        /**
+         * Set by the producer after its last commit.
+         */
+        volatile boolean done = false;
+
+        Consumer(ByteRing ring, FrameDecoder decoder, long delayNs){
+            this.ring = ring;
+            this.decoder = decoder;
+            this.delayNs = delayNs;
+        }
+
+        @Override
+        public void run(){
+            int count;
+            while(true){
+                ring.awaitData();
+                while((count = ring.readableChunk()) > 0){
+                    if(ring.takeGap()){
+                        decoder.reset();
+                    }
+                    decoder.consume(ring.buffer(), ring.readOffset(), count, ring.chunkTime());
+                    ring.release(count);
+                    if(delayNs > 0){
+                        LockSupport.parkNanos(delayNs);
+                    }
+                }
+                if(done && ring.getDepth() == 0) return;
+            }
+        }
+    }
+
+    /**
+     * Writes the stream into the ring in random sized reads, like {@link BluetoothService}'s ConnectedThread.
+     * Data that finds the ring full is dropped and counted as an overrun.
+     * @param rate Bytes per second to pace the producer to, 0 for as fast as possible
+     * @return Number of bytes committed
+     */
+    private static long produce(Stream stream, ByteRing ring, Consumer consumer, int rate, long seed){
+        Random random = new Random(seed);
+        long start = System.nanoTime();
+        long committed = 0;
+        int position = 0;
+        int read, space;
+        while(position < stream.bytes.length){
+            read = Math.min(1 + random.nextInt(READ_SIZE), stream.bytes.length - position);
+            space = ring.claim(read);
+            if(space > 0){
+                //the socket fills at most the claimed space
+                read = Math.min(read, space);
+                System.arraycopy(stream.bytes, position, ring.buffer(), ring.writeOffset(), read);
+                ring.commit(read, System.nanoTime());
+                committed += read;
+            }else{
+                ring.overrun(read);
+            }
+            position += read;
+            if(rate > 0){
+                long due = start + position * 1000000000L / rate;
+                long now = System.nanoTime();
+                if(due > now){
+                    LockSupport.parkNanos(due - now);
+                }
+            }
+        }
+        consumer.done = true;
+        consumer.interrupt();
+        return committed;
+    }
+
+    /**
+     * At ten times the data rate of a 115200 baud link, every frame must arrive intact and in order, with no overruns.
+     */
+    @Test
+    public void tenTimesLinkRateDeliversEveryFrame() throws InterruptedException{
+        //about 2.5 seconds of data
+        Stream stream = new Stream(2500, 1);
+        ByteRing ring = new ByteRing(DecodeThread.RING_CAPACITY);
+        FrameDecoder decoder = new FrameDecoder(stream);
+        Consumer consumer = new Consumer(ring, decoder, 0);
+        consumer.start();
+        long committed = produce(stream, ring, consumer, 10 * LINK_RATE, 2);
+        consumer.join(10000);
+
+        assertEquals(0, ring.getOverruns());
+        assertEquals(stream.bytes.length, committed);
+        assertEquals(stream.bytes.length, decoder.getBytesTotal());
+        assertEquals(0, decoder.getBytesDropped());
+        assertEquals(stream.frames, stream.intact);
+        assertEquals(0, stream.corrupted);
+        assertEquals(0, stream.rejected);
+        assertTrue(!stream.reordered);
+    }
+
+    /**
+     * With a small ring and a consumer slower than the producer at ten times the link rate, the producer overruns regularly. Dropped data must be counted, and frames that lost a part
+     * must be dropped instead of being spliced with the next frame: every delivered frame arrives intact.
+     */
+    @Test
+    public void overrunsAreCountedNotCorrupting() throws InterruptedException{
+        Stream stream = new Stream(2000, 3);
+        ByteRing ring = new ByteRing(4096);
+        FrameDecoder decoder = new FrameDecoder(stream);
+        //a read takes about 4.5 ms at this rate
+        Consumer consumer = new Consumer(ring, decoder, 6000000);
+        consumer.start();
+        long committed = produce(stream, ring, consumer, 10 * LINK_RATE, 4);
+        consumer.join(10000);
+
+        assertTrue(ring.getOverruns() > 0);
+        assertEquals(stream.bytes.length, committed + ring.getBytesOverrun());
+        assertEquals(committed, decoder.getBytesTotal());
+        assertTrue(stream.intact < stream.frames);
+        assertEquals(0, stream.corrupted);
+        assertEquals(0, stream.rejected);
+        assertTrue(!stream.reordered);
+    }
+}
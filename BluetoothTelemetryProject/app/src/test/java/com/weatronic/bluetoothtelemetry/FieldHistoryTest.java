@@ -0,0 +1,104 @@
+package com.weatronic.bluetoothtelemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Resizes {@link FieldHistories} on one thread while another adds samples, the way the UI thread and the decoding thread
+ * share them. Sample n has time n and value n, so every intact window must hold consecutive samples.
+ */
+public class FieldHistoryTest {
+    /**
+     * Slot of the field the writer adds samples to.
+     */
+    private static final int SLOT = 3;
+
+    /**
+     * Adds samples to the current history of {@link #SLOT}, like {@link ValueStore#set(int, long, double)}.
+     */
+    private static class Writer extends Thread {
+        final FieldHistories histories;
+        /**
+         * Set to end the writer.
+         */
+        volatile boolean done = false;
+        /**
+         * Number of samples added, valid once the writer ended.
+         */
+        long samples = 0;
+
+        Writer(FieldHistories histories){
+            this.histories = histories;
+        }
+
+        @Override
+        public void run(){
+            long n = 0;
+            while(!done){
+                histories.get(SLOT).add(n, n);
+                n++;
+            }
+            samples = n;
+        }
+    }
+
+    /**
+     * @return Number of samples of the window that do not follow the one before
+     */
+    private static int gaps(FieldHistory.Window window){
+        int gaps = 0;
+        for(int i = 1; i < window.size(); i++){
+            if(window.timeAt(i) != window.timeAt(i - 1) + 1 || window.valueAt(i) != window.valueAt(i - 1) + 1){
+                gaps++;
+            }
+        }
+        return gaps;
+    }
+
+    /**
+     * Samples copied while being overwritten must be discarded, and samples added during a resize must not be lost.
+     */
+    @Test
+    public void resizeWhileWritingKeepsConsecutiveSamples() throws InterruptedException{
+        FieldHistories histories = new FieldHistories();
+        //small histories, so that the writer wraps them during the copies
+        histories.setBudget(FieldHistories.MIN_CAPACITY * 4 * FieldHistories.BYTES_PER_SAMPLE);
+        histories.subscribe(SLOT);
+        Writer writer = new Writer(histories);
+        writer.start();
+        FieldHistory.Window window = new FieldHistory.Window();
+        int intact = 0;
+        for(int resizes = 0; resizes < 20000; resizes++){
+            //switches between 256 and 128 samples
+            if(resizes % 2 == 0){
+                histories.subscribe(SLOT + 1);
+            }else{
+                histories.unsubscribe(SLOT + 1);
+            }
+            histories.get(SLOT).last(Integer.MAX_VALUE, window);
+            int gaps = gaps(window);
+            if(window.isIntact()){
+                assertEquals(0, gaps);
+                intact++;
+            }
+        }
+        writer.done = true;
+        writer.join();
+        long samples = writer.samples;
+
+        //the final add takes over everything added to the previous history
+        FieldHistory history = histories.get(SLOT);
+        history.add(samples, samples);
+        int size = history.last(Integer.MAX_VALUE, window);
+        assertTrue(window.isIntact());
+        //at least what the smaller history held when it was copied
+        assertTrue(size >= FieldHistories.MIN_CAPACITY * 2 - 1);
+        assertEquals(0, gaps(window));
+        assertEquals(samples, window.timeAt(size - 1));
+        assertEquals(samples + 1, history.getCount());
+        //windows overwritten while read are discarded, but not all of them: the gap check ran
+        assertTrue(intact > 0);
+    }
+}
@@ -0,0 +1,125 @@
+package com.weatronic.bluetoothtelemetry;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link HexDecoder} with the string parsing it replaced: Long.parseLong(hex, 16) for config IDs and
+ * Long.parseLong(littleToBigEndian(hex), 16) for data values, where any exception means the value is invalid.
+ */
+public class HexDecoderTest {
+    /**
+     * Characters to build inputs from: all hex digits and the characters next to their ranges.
+     * Sign characters are left out, HexDecoder only decodes unsigned values.
+     */
+    private static final String ALPHABET = "0123456789abcdefABCDEF/:@G`g \u0000\u007F\u0080\u00B2\u00FF";
+
+    private static long parseBigEndianBaseline(String hex){
+        try{
+            return Long.parseLong(hex, 16);
+        }catch(RuntimeException e){
+            return HexDecoder.INVALID;
+        }
+    }
+    private static long parseLittleEndianBaseline(String hex){
+        try{
+            return Long.parseLong(TelemetryCodecTest.littleToBigEndian(hex), 16);
+        }catch(RuntimeException e){
+            return HexDecoder.INVALID;
+        }
+    }
+    /**
+     * @return The characters of the text as bytes, one byte per character, inside a larger buffer at offset 3
+     */
+    private static byte[] bytes(String text){
+        byte[] buf = new byte[text.length() + 6];
+        for(int i = 0; i < text.length(); i++){
+            buf[3 + i] = (byte)text.charAt(i);
+        }
+        return buf;
+    }
+    private static void check(String text){
+        byte[] buf = bytes(text);
+        assertEquals("big-endian \"" + text + "\"", parseBigEndianBaseline(text), HexDecoder.parseBigEndian(buf, 3, 3 + text.length()));
+        assertEquals("little-endian \"" + text + "\"", parseLittleEndianBaseline(text), HexDecoder.parseLittleEndian(buf, 3, 3 + text.length()));
+    }
+
+    /**
+     * Every input of up to 3 characters.
+     */
+    @Test
+    public void shortInputsMatch(){
+        check("");
+        int n = ALPHABET.length();
+        for(int a = 0; a < n; a++){
+            check("" + ALPHABET.charAt(a));
+            for(int b = 0; b < n; b++){
+                check("" + ALPHABET.charAt(a) + ALPHABET.charAt(b));
+                for(int c = 0; c < n; c++){
+                    check("" + ALPHABET.charAt(a) + ALPHABET.charAt(b) + ALPHABET.charAt(c));
+                }
+            }
+        }
+    }
+    /**
+     * Random hex values of every length up to 20 digits, including values that overflow a long.
+     * 8 and 16 digits are decoded word-at-a-time and get more samples.
+     */
+    @Test
+    public void randomHexValuesMatch(){
+        Random random = new Random(1);
+        String digits = "0123456789abcdefABCDEF";
+        StringBuilder text = new StringBuilder();
+        for(int length = 1; length <= 20; length++){
+            int samples = length == 8 || length == 16 ? 50000 : 10000;
+            for(int i = 0; i < samples; i++){
+                text.setLength(0);
+                for(int c = 0; c < length; c++){
+                    text.append(digits.charAt(random.nextInt(digits.length())));
+                }
+                check(text.toString());
+            }
+        }
+    }
+    /**
+     * 8 and 16 digit values with one character replaced by a non-digit at every position.
+     */
+    @Test
+    public void invalidCharacterAtEveryPositionMatches(){
+        Random random = new Random(2);
+        String digits = "0123456789abcdefABCDEF";
+        String invalid = "/:@G`g \u0000\u007F\u0080\u00B2\u00FF";
+        StringBuilder text = new StringBuilder();
+        int[] lengths = {8, 16};
+        for(int length : lengths){
+            for(int position = 0; position < length; position++){
+                for(int k = 0; k < invalid.length(); k++){
+                    text.setLength(0);
+                    for(int c = 0; c < length; c++){
+                        text.append(digits.charAt(random.nextInt(digits.length())));
+                    }
+                    text.setCharAt(position, invalid.charAt(k));
+                    check(text.toString());
+                }
+            }
+        }
+    }
+    /**
+     * Every byte value at every position of an 8 digit value, to cover the range checks of the word-at-a-time conversion.
+     * Signs are skipped, see {@link #ALPHABET}.
+     */
+    @Test
+    public void everyByteInWordMatches(){
+        for(int position = 0; position < 8; position++){
+            for(int b = 0; b < 256; b++){
+                if(b == '+' || b == '-') continue;
+                StringBuilder text = new StringBuilder("12aB34cD");
+                text.setCharAt(position, (char)b);
+                check(text.toString());
+            }
+        }
+    }
+}
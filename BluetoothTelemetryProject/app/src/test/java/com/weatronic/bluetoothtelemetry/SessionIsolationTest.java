@@ -0,0 +1,135 @@
+package com.weatronic.bluetoothtelemetry;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Decodes two {@link TelemetrySession sessions} at the same time on two threads, the way two links are decoded by their
+ * own decoding threads. Both sessions share one catalog of fields; every value carries the number of its session,
+ * so a value written into the wrong session's {@link ValueStore} is detected.
+ */
+public class SessionIsolationTest {
+    /**
+     * Field IDs of the test catalog, DV4 unsigned words.
+     */
+    private static final long[] IDS = {0x4105L, 0x4205L, 0x4305L, 0x4405L};
+    /**
+     * Data messages decoded by each session.
+     */
+    private static final int FRAMES = 100000;
+    private static final String HEX = "0123456789ABCDEF";
+
+    /**
+     * @return Value of a field in a data message: the session above bit 20, frame and column below.
+     * Below 2^24, so that the float conversion factor keeps it exact.
+     */
+    private static long value(int session, int frame, int column){
+        return ((long)session << 20) | ((frame * IDS.length + column) & 0xFFFFF);
+    }
+    /**
+     * @return Config message listing {@link #IDS}
+     */
+    private static byte[] config(){
+        StringBuilder text = new StringBuilder("$PWEAC");
+        for(long id : IDS){
+            text.append(',').append(Long.toHexString(id).toUpperCase());
+        }
+        return Parser.appendChecksum(text.toString()).getBytes();
+    }
+    /**
+     * @return Data message with the values of a frame, little-endian hex as sent by the receiver
+     */
+    private static byte[] data(int session, int frame){
+        StringBuilder text = new StringBuilder("$PWEAD0");
+        for(int column = 0; column < IDS.length; column++){
+            long value = value(session, frame, column);
+            text.append(',');
+            for(int b = 0; b < 4; b++){
+                text.append(HEX.charAt((int)(value >>> (8 * b + 4)) & 0xF)).append(HEX.charAt((int)(value >>> (8 * b)) & 0xF));
+            }
+        }
+        return Parser.appendChecksum(text.toString()).getBytes();
+    }
+
+    /**
+     * Decodes the messages of one session and checks after each message that the store holds exactly its values.
+     */
+    private static class Decoder extends Thread {
+        final int number;
+        final TelemetrySession session;
+        final byte[][] frames;
+        final CountDownLatch start;
+        /**
+         * First mismatch found, null if none.
+         */
+        volatile String error = null;
+
+        Decoder(int number, TelemetryDataContainer catalog, CountDownLatch start){
+            this.number = number;
+            this.session = new TelemetrySession(catalog);
+            this.start = start;
+            frames = new byte[FRAMES][];
+            for(int frame = 0; frame < FRAMES; frame++){
+                frames[frame] = data(number, frame);
+            }
+        }
+
+        @Override
+        public void run(){
+            Parser parser = session.getParser();
+            ValueStore values = session.getValues();
+            TelemetryDataContainer container = values.catalog;
+            byte[] config = config();
+            try{
+                start.await();
+            }catch(InterruptedException e){
+                error = "interrupted";
+                return;
+            }
+            parser.processFrame(config, 0, config.length, 1);
+            for(int frame = 0; frame < FRAMES && error == null; frame++){
+                parser.processFrame(frames[frame], 0, frames[frame].length, frame + 1);
+                for(int column = 0; column < IDS.length; column++){
+                    double latest = values.getLatest(container.getFieldById(IDS[column]).slot);
+                    if(latest != value(number, frame, column)){
+                        error = "session " + number + ", frame " + frame + ", column " + column + ": " + (long)latest;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sessionsOnTwoThreadsKeepTheirOwnValues() throws InterruptedException{
+        CountDownLatch start = new CountDownLatch(1);
+        //one catalog for both, as sessions of a protocol share it
+        TelemetryDataContainer catalog = TelemetryDataContainer.build(null, TelemetryData.PROTOCOL_DV4, TestCatalogs.numberTable(IDS, 1));
+        Decoder first = new Decoder(1, catalog, start);
+        Decoder second = new Decoder(2, catalog, start);
+        first.start();
+        second.start();
+        start.countDown();
+        first.join();
+        second.join();
+        assertNull(first.error);
+        assertNull(second.error);
+
+        for(Decoder decoder : new Decoder[]{first, second}){
+            ValueStore values = decoder.session.getValues();
+            TelemetryDataContainer container = values.catalog;
+            assertTrue(values.takeSnapshot());
+            for(int column = 0; column < IDS.length; column++){
+                TelemetryDataSimple field = (TelemetryDataSimple)container.getFieldById(IDS[column]);
+                assertEquals(value(decoder.number, FRAMES - 1, column), field.getRaw(values));
+                assertEquals(FRAMES, field.getTime(values));
+            }
+            assertEquals(0, decoder.session.getParser().getConfigChecksumFailures());
+            assertEquals(0, decoder.session.getParser().getDataChecksumFailures(0));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.weatronic.bluetoothtelemetry;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Benchmark of the value hot path of setValue: hex value of a data message to signed raw value.
+ * Compares the string handling it replaced with {@link HexDecoder} and {@link TelemetryCodec}.
+ * Only runs on request, with the system property <code>benchmarks=true</code>: <code>gradlew test -Dbenchmarks=true</code>.
+ */
+public class SetValuePathBenchmark {
+    /**
+     * Values decoded per round.
+     */
+    private static final int COUNT = 4096;
+    /**
+     * Rounds; the fastest one counts.
+     */
+    private static final int ROUNDS = 20;
+
+    @Before
+    public void onlyOnRequest(){
+        Assume.assumeTrue(Boolean.getBoolean("benchmarks"));
+    }
+    /**
+     * Both paths must give the same values, the codec in less time.
+     */
+    @Test
+    public void codecIsFasterThanStrings(){
+        Random random = new Random(8);
+        String[] hex = new String[COUNT];
+        byte[][] bytes = new byte[COUNT][];
+        int[] sizes = new int[COUNT];
+        int[] sizeChoices = {1, 2, 4, 8};
+        for(int i = 0; i < COUNT; i++){
+            sizes[i] = sizeChoices[random.nextInt(sizeChoices.length)];
+            StringBuilder text = new StringBuilder();
+            for(int b = 0; b < sizes[i]; b++){
+                //8-byte values must stay below 2^63, the top byte is last (little-endian)
+                int value = b == 7 ? random.nextInt(0x80) : random.nextInt(0x100);
+                text.append(Character.forDigit(value >> 4, 16)).append(Character.forDigit(value & 0xF, 16));
+            }
+            hex[i] = text.toString().toUpperCase();
+            bytes[i] = hex[i].getBytes();
+        }
+        long stringSum = 0, codecSum = 0;
+        long stringBest = Long.MAX_VALUE, codecBest = Long.MAX_VALUE;
+        long start;
+        for(int round = 0; round < ROUNDS; round++){
+            start = System.nanoTime();
+            for(int i = 0; i < COUNT; i++){
+                stringSum += TelemetryCodecTest.Baseline.unsignedToSigned(
+                        Long.parseLong(TelemetryCodecTest.littleToBigEndian(hex[i]), 16), sizes[i]);
+            }
+            stringBest = Math.min(stringBest, System.nanoTime() - start);
+            start = System.nanoTime();
+            for(int i = 0; i < COUNT; i++){
+                codecSum += TelemetryCodec.toSigned(HexDecoder.parseLittleEndian(bytes[i], 0, bytes[i].length), sizes[i]);
+            }
+            codecBest = Math.min(codecBest, System.nanoTime() - start);
+        }
+        assertEquals(stringSum, codecSum);
+        assertTrue("strings " + stringBest / COUNT + " ns/value, codec " + codecBest / COUNT + " ns/value", codecBest < stringBest);
+    }
+}
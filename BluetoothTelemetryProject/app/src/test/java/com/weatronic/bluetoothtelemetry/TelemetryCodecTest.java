@@ -0,0 +1,402 @@
+package com.weatronic.bluetoothtelemetry;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link TelemetryCodec} with the string based ID and value handling it replaced.
+ * The methods of {@link Baseline} are the previous implementations, unchanged except for taking the protocol and subfield index as parameters.
+ * Results must be equal, and where the string handling failed, the codec must fail with the same kind of exception.
+ */
+public class TelemetryCodecTest {
+    /**
+     * Types used for subfields, including the virtual 12-bit type.
+     */
+    private static final int[] TYPES = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x10, 0x11, 0x12, 0x13};
+
+    /**
+     * The string based implementations, as they were in TelemetryData.
+     */
+    static class Baseline {
+        static int idToType(long ID, int protocol){
+            if(ID == 0){
+                return 0;
+            }
+            if(protocol == TelemetryData.PROTOCOL_DV4){
+                String hexStr = Long.toHexString(ID);
+                String typeChar = hexStr.substring(hexStr.length() - 1);
+                int type;
+                try {
+                    type = Integer.parseInt(typeChar, 16);
+                }catch(Exception e){
+                    type = TelemetryData.UNSIGNED_WORD;
+                }
+                return type;
+            }else{
+                String binStr = Long.toBinaryString(ID);
+                String hexStr = Long.toHexString(ID);
+                while(binStr.length() < 4 * hexStr.length()){
+                    binStr = "0" + binStr;
+                }
+                String typeBits = binStr.substring(0, 5);
+                int type;
+                try {
+                    type = Integer.parseInt(typeBits, 2);
+                }catch(Exception e){
+                    type = TelemetryData.UNSIGNED_WORD;
+                }
+                return type;
+            }
+        }
+
+        static long unsignedToSigned(long value, int sizeBytes){
+            String maxPositiveStr = "7F";
+            for(int i = 1; i < sizeBytes; i++){
+                maxPositiveStr += "FF";
+            }
+            long maxPositive = Long.parseLong(maxPositiveStr, 16);
+            if(value > maxPositive){
+                value = 0 - (value - maxPositive);
+            }
+            return value;
+        }
+
+        static boolean isValid(long valueRaw, int flagPos){
+            String bits = Long.toBinaryString(valueRaw);
+            char flag = bits.charAt(flagPos);
+            return flag == '1';
+        }
+
+        static long removeFlag(long raw, int flagPos){
+            String bits = Long.toBinaryString(raw);
+            StringBuilder sb = new StringBuilder(bits);
+            sb.deleteCharAt(flagPos);
+            bits = sb.toString();
+            return Long.parseLong(bits, 2);
+        }
+
+        static int subType(int type){
+            return type == TelemetryData.SIGNED_12BIT ? TelemetryData.SIGNED_SHORT : type;
+        }
+        //TelemetryDataCompositeDV4.newSubField, index = subfields.size() + 1
+        static long dv4SubField(long ID, int index, int type){
+            String baseId = Long.toHexString(ID).substring(0, 2);
+            String finalIdStr = baseId + Integer.toHexString(index) + Integer.toHexString(subType(type));
+            return Integer.parseInt(finalIdStr, 16);
+        }
+        //TelemetryDataCompositeSkyNavReferential.newSubField
+        static long skyNavSubField(long ID, int type){
+            String baseID = Long.toBinaryString(ID);
+            baseID = baseID.substring(1, baseID.length());
+            String finalIdStr = Long.toBinaryString(subType(type)) + baseID;
+            return Long.parseLong(finalIdStr, 2);
+        }
+        //TelemetryDataCompositeSkyNavSolid.newSubField, index = subfields.size() + 1
+        static long skyNavSolidSubField(long ID, int index, int type){
+            String baseID = Long.toBinaryString(ID);
+            baseID = baseID.substring(1, baseID.length());
+            String indexStr = Integer.toBinaryString(index);
+            while(indexStr.length() < 8){
+                indexStr = "0" + indexStr;
+            }
+            String finalIdStr = Integer.toBinaryString(subType(type)) + baseID + indexStr;
+            return Long.parseLong(finalIdStr, 2);
+        }
+        //TelemetryDataGPS_SkyNav constructor
+        static int gpsMidBytes(long ID){
+            return Integer.parseInt(Long.toBinaryString(ID).substring(5, 12));
+        }
+        //TelemetryDataArrayVirtual constructor
+        static long virtualId(long startID){
+            return Long.parseLong(Long.toHexString(startID) + "A", 16);
+        }
+    }
+
+    /**
+     * Result of a call: the value, or the kind of exception it threw.
+     */
+    private static String outcome(long value){
+        return Long.toString(value);
+    }
+    private static String outcome(RuntimeException e){
+        if(e instanceof NumberFormatException) return "NumberFormatException";
+        if(e instanceof IndexOutOfBoundsException) return "IndexOutOfBoundsException";
+        return e.getClass().getName();
+    }
+    /**
+     * Values around powers of two and random values, positive and negative.
+     */
+    private static long[] edgeAndRandomValues(int randomCount, long seed){
+        Random random = new Random(seed);
+        long[] values = new long[64 * 6 + randomCount];
+        int n = 0;
+        for(int bit = 0; bit < 64; bit++){
+            for(long delta = -2; delta <= 3; delta++){
+                values[n++] = (1L << bit) + delta;
+            }
+        }
+        for(int i = 0; i < randomCount; i++){
+            //random bit lengths, so that short values are as common as long ones
+            values[n++] = random.nextLong() >>> random.nextInt(64);
+        }
+        return values;
+    }
+
+    @Test
+    public void typeOfMatchesBothProtocols(){
+        int[] protocols = {TelemetryData.PROTOCOL_DV4, TelemetryData.PROTOCOL_SKYNAVIGATOR};
+        for(int protocol : protocols){
+            for(long id = 0; id <= 0xFFFFF; id++){
+                checkType(id, protocol);
+            }
+            for(long id : edgeAndRandomValues(100000, protocol)){
+                checkType(id, protocol);
+            }
+        }
+    }
+    private static void checkType(long id, int protocol){
+        String expected, actual;
+        try{
+            expected = outcome(Baseline.idToType(id, protocol));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.typeOf(id, protocol));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("ID " + Long.toHexString(id) + " protocol " + protocol, expected, actual);
+    }
+
+    @Test
+    public void toSignedMatchesForAllSizes(){
+        long[] random = edgeAndRandomValues(20000, 1);
+        for(int size = 0; size <= 9; size++){
+            for(long value = 0; value <= 0xFFFF; value++){
+                checkSigned(value, size);
+            }
+            for(long value : random){
+                checkSigned(value, size);
+            }
+            //around the largest positive value of this size
+            long max = size > 8 ? Long.MAX_VALUE : (1L << (Math.max(size, 1) * 8 - 1)) - 1;
+            for(long delta = -3; delta <= 3; delta++){
+                checkSigned(max + delta, size);
+                checkSigned(2 * max + delta, size);
+            }
+        }
+    }
+    private static void checkSigned(long value, int size){
+        String expected, actual;
+        try{
+            expected = outcome(Baseline.unsignedToSigned(value, size));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.toSigned(value, size));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("value " + value + " size " + size, expected, actual);
+    }
+
+    @Test
+    public void flagsMatch(){
+        for(long raw = 0; raw <= 0x3FFF; raw++){
+            for(int pos = -1; pos <= 15; pos++){
+                checkFlag(raw, pos);
+            }
+        }
+        for(long raw : edgeAndRandomValues(3000, 2)){
+            for(int pos = -1; pos <= 64; pos++){
+                checkFlag(raw, pos);
+            }
+        }
+    }
+    private static void checkFlag(long raw, int pos){
+        String expected, actual;
+        try{
+            expected = String.valueOf(Baseline.isValid(raw, pos));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = String.valueOf(TelemetryCodec.flagSet(raw, pos));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("flag of " + raw + " at " + pos, expected, actual);
+        try{
+            expected = outcome(Baseline.removeFlag(raw, pos));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.removeFlag(raw, pos));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("remove flag of " + raw + " at " + pos, expected, actual);
+    }
+
+    @Test
+    public void dv4SubIdsMatch(){
+        long[] random = edgeAndRandomValues(2000, 3);
+        for(int type : TYPES){
+            for(int index = 1; index <= 20; index++){
+                for(long parent = 0; parent <= 0xFFF; parent++){
+                    checkDv4(parent, index, type);
+                }
+                for(long parent : random){
+                    checkDv4(parent, index, type);
+                }
+            }
+            //indices with more hex digits
+            for(int index = 0x100; index <= 0x100000; index <<= 4){
+                checkDv4(0xE905, index - 1, type);
+                checkDv4(0xE905, index, type);
+            }
+        }
+    }
+    private static void checkDv4(long parent, int index, int type){
+        String expected, actual;
+        try{
+            expected = outcome(Baseline.dv4SubField(parent, index, type));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.dv4SubId(parent, index, type));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("parent " + Long.toHexString(parent) + " index " + index + " type " + type, expected, actual);
+    }
+
+    @Test
+    public void skyNavSubIdsMatch(){
+        long[] random = edgeAndRandomValues(20000, 4);
+        for(int type : TYPES){
+            for(long base = 0; base <= 0xFFFF; base++){
+                checkSkyNav(base, type);
+            }
+            for(long base : random){
+                checkSkyNav(base, type);
+            }
+        }
+    }
+    private static void checkSkyNav(long base, int type){
+        String expected, actual;
+        try{
+            expected = outcome(Baseline.skyNavSubField(base, type));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.skyNavSubId(base, type));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("base " + Long.toHexString(base) + " type " + type, expected, actual);
+    }
+
+    @Test
+    public void skyNavSolidSubIdsMatch(){
+        long[] random = edgeAndRandomValues(500, 5);
+        int[] indices = {1, 2, 3, 7, 8, 15, 16, 100, 255, 256, 257, 1000, 65535, 65536, Integer.MAX_VALUE};
+        for(int type : TYPES){
+            for(int index : indices){
+                for(long parent = 0; parent <= 0xFFF; parent++){
+                    checkSolid(parent, index, type);
+                }
+                for(long parent : random){
+                    checkSolid(parent, index, type);
+                }
+            }
+        }
+    }
+    private static void checkSolid(long parent, int index, int type){
+        String expected, actual;
+        try{
+            expected = outcome(Baseline.skyNavSolidSubField(parent, index, type));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.skyNavSolidSubId(parent, index, type));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("parent " + Long.toHexString(parent) + " index " + index + " type " + type, expected, actual);
+    }
+
+    @Test
+    public void skyNavGpsBaseMatches(){
+        for(long id = 0; id <= 0x7FFFF; id++){
+            checkGps(id);
+        }
+        for(long id : edgeAndRandomValues(100000, 6)){
+            //GPS IDs are ints
+            checkGps(id & 0x7FFFFFFFL);
+        }
+    }
+    private static void checkGps(long id){
+        String expected, actual;
+        try{
+            expected = outcome(Baseline.gpsMidBytes(id));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.skyNavGpsBase(id));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("ID " + Long.toHexString(id), expected, actual);
+    }
+
+    @Test
+    public void virtualIdsMatch(){
+        for(long id = 0; id <= 0xFFFFF; id++){
+            checkVirtual(id);
+        }
+        for(long id : edgeAndRandomValues(100000, 7)){
+            checkVirtual(id);
+        }
+        for(long delta = -3; delta <= 3; delta++){
+            checkVirtual((Long.MAX_VALUE >>> 4) + delta);
+        }
+    }
+    private static void checkVirtual(long id){
+        String expected, actual;
+        try{
+            expected = outcome(Baseline.virtualId(id));
+        }catch(RuntimeException e){
+            expected = outcome(e);
+        }
+        try{
+            actual = outcome(TelemetryCodec.virtualId(id));
+        }catch(RuntimeException e){
+            actual = outcome(e);
+        }
+        assertEquals("ID " + Long.toHexString(id), expected, actual);
+    }
+
+    /**
+     * Previous TelemetryData.littleToBigEndian.
+     */
+    static String littleToBigEndian(String little){
+        String big = "";
+        String curByte;
+        for(int i = 0; i < little.length(); i += 2){
+            curByte = little.substring(i, i+2);
+            big = curByte.concat(big);
+        }
+        return big;
+    }
+}
@@ -0,0 +1,41 @@
+package com.weatronic.bluetoothtelemetry;
+
+/**
+ * Small field catalogs for the tests, built without a Context: all names are literal.
+ */
+final class TestCatalogs {
+    private TestCatalogs(){
+    }
+
+    /**
+     * @param ids Field IDs
+     * @param factorK Conversion factor of all fields
+     * @return Catalog of the IDs as numbers with literal names, without a hash (fields are found by the registry)
+     */
+    static FieldTable numberTable(long[] ids, float factorK){
+        int n = ids.length;
+        String[] strings = new String[n + 1];
+        byte[] kinds = new byte[n];
+        int[] nameParts = new int[n];
+        int[] nameOffsets = new int[2 * n + 1];
+        int[] units = new int[n];
+        int[] limitMin = new int[n];
+        int[] limitMax = new int[n];
+        float[] factors = new float[n];
+        for(int row = 0; row < n; row++){
+            strings[row] = "Field " + row;
+            kinds[row] = FieldTable.NUMBER;
+            nameParts[row] = -1 - row;
+            //one name part, no element name
+            nameOffsets[2 * row] = row;
+            nameOffsets[2 * row + 1] = row + 1;
+            units[row] = n;
+            limitMax[row] = Integer.MAX_VALUE;
+            factors[row] = factorK;
+        }
+        nameOffsets[2 * n] = n;
+        strings[n] = "";
+        return new FieldTable(TelemetryData.PROTOCOL_DV4, strings, ids, kinds, nameParts, nameOffsets, units, limitMin, limitMax,
+                factors, new int[n], new int[n], new int[n], new int[n], new long[n], new int[0], new int[0]);
+    }
+}
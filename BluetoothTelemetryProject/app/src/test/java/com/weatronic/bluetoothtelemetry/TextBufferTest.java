@@ -0,0 +1,186 @@
+package com.weatronic.bluetoothtelemetry;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares {@link TextBuffer} and {@link TelemetryDataSimple#appendValue(ValueStore, TextBuffer, char)}, which instruments format their
+ * values with, to the String based formatting they replaced, and checks that they allocate nothing once the buffer is large enough.
+ */
+public class TextBufferTest {
+    /**
+     * Field IDs of the test catalog, DV4 unsigned words.
+     */
+    private static final long[] IDS = {0x4105L, 0x4205L};
+    /**
+     * Calls per allocation measurement.
+     */
+    private static final int CALLS = 100000;
+
+    /**
+     * @return Text of the buffer
+     */
+    private static String text(TextBuffer buffer){
+        return new String(buffer.chars(), 0, buffer.length());
+    }
+    private static void checkFixed(double value, int decimals){
+        String expected = String.format(Locale.ROOT, "%." + decimals + "f", value);
+        assertEquals(value + " to " + decimals + " places", expected, text(new TextBuffer(1).appendFixed(value, decimals, '.')));
+    }
+    private static void checkFixed(double value){
+        for(int decimals = 0; decimals <= 4; decimals++){
+            checkFixed(value, decimals);
+        }
+    }
+
+    @Test
+    public void appendFixedMatchesStringFormat(){
+        double[] special = {0, -0.0, 0.5, -0.5, 1.5, 2.5, 0.125, 0.375, 1.005, 2.675, 1.115, -1.005, 0.005, 0.0049999,
+                0.994999, 0.995, 9.995, 99.995, 1e-10, -1e-10, 123456789.125, 1e17, 9.999999999999999e17, 1e18, 1.5e20,
+                Double.MAX_VALUE, -Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for(double value : special){
+            checkFixed(value);
+        }
+        //decimal ties, most of them not exact in binary
+        for(int i = -20000; i <= 20000; i++){
+            checkFixed(i / 1000.0 + 0.0005, 3);
+            checkFixed(i / 100.0 + 0.005, 2);
+            checkFixed(i / 10.0 + 0.05, 1);
+            checkFixed(i + 0.5, 0);
+        }
+        Random random = new Random(1);
+        for(int i = 0; i < 200000; i++){
+            checkFixed((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(16) - 4), random.nextInt(5));
+        }
+    }
+    @Test
+    public void appendFixedUsesSeparator(){
+        assertEquals(String.format(Locale.GERMANY, "%.2f", 1234.5678), text(new TextBuffer(1).appendFixed(1234.5678, 2, ',')));
+        //formatted by String.format
+        assertEquals(String.format(Locale.GERMANY, "%.2f", 1.005), text(new TextBuffer(1).appendFixed(1.005, 2, ',')));
+        assertEquals(String.format(Locale.GERMANY, "%.2f", 1e20), text(new TextBuffer(1).appendFixed(1e20, 2, ',')));
+    }
+    @Test
+    public void appendLongAndHexMatchLongToString(){
+        long[] special = {0, 1, -1, 9, 10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+                Long.MAX_VALUE - 1, Long.MIN_VALUE + 1, 999999999999999999L, 1000000000000000000L};
+        for(long value : special){
+            assertEquals(Long.toString(value), text(new TextBuffer(1).append(value)));
+            assertEquals(Long.toHexString(value).toUpperCase(), text(new TextBuffer(1).appendHex(value)));
+        }
+        Random random = new Random(2);
+        long value;
+        for(int i = 0; i < 200000; i++){
+            //all magnitudes
+            value = random.nextLong() >> random.nextInt(64);
+            assertEquals(Long.toString(value), text(new TextBuffer(1).append(value)));
+            assertEquals(Long.toHexString(value).toUpperCase(), text(new TextBuffer(1).appendHex(value)));
+        }
+    }
+    /**
+     * The baseline formatted the Integer or Float returned by adaptValue: <code>String.format("%.2f", (float)value)</code>,
+     * falling back to <code>String.format("%d", (int)value)</code> for integers.
+     */
+    @Test
+    public void appendValueMatchesBaselineFormat(){
+        ValueStore integralValues = values(1, IDS[0]);
+        ValueStore fractionalValues = values(0.1f, IDS[1]);
+        TelemetryDataSimple integral = field(integralValues, IDS[0]);
+        TelemetryDataSimple fractional = field(fractionalValues, IDS[1]);
+        assertTrue(integral.isIntegral());
+        assertTrue(!fractional.isIntegral());
+        Random random = new Random(3);
+        long raw;
+        for(int i = 0; i < 50000; i++){
+            raw = i < 1000 ? i : random.nextLong() & 0xFFFFFFFFL;
+            integral.setValue(integralValues, raw);
+            fractional.setValue(fractionalValues, raw);
+            integralValues.takeSnapshot();
+            fractionalValues.takeSnapshot();
+            assertEquals(String.format("%d", (int)Math.round(1f * raw)), text(integral.appendValue(integralValues, new TextBuffer(1), '.')));
+            assertEquals(String.format(Locale.ROOT, "%.2f", (float)(0.1f * raw)),
+                    text(fractional.appendValue(fractionalValues, new TextBuffer(1), '.')));
+        }
+    }
+
+    /**
+     * @return Empty values of a container of its own, with one field of the given conversion factor
+     */
+    private static ValueStore values(float factorK, long id){
+        return new ValueStore(TelemetryDataContainer.build(null, TelemetryData.PROTOCOL_DV4,
+                TestCatalogs.numberTable(new long[]{id}, factorK)));
+    }
+    /**
+     * @return The field of given values
+     */
+    private static TelemetryDataSimple field(ValueStore values, long id){
+        return (TelemetryDataSimple)values.catalog.getFieldById(id);
+    }
+    /**
+     * @return Thread allocation counter of the JVM, skips the test where it is not available
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter(){
+        Object bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+    /**
+     * Formats values the way instruments do each frame.
+     * @param useStrings True to format with the String based baseline instead
+     * @return Characters written, so that the work cannot be skipped
+     */
+    private static long formatValues(TextBuffer out, ValueStore integralValues, ValueStore fractionalValues, boolean useStrings){
+        TelemetryDataSimple integral = field(integralValues, IDS[0]);
+        TelemetryDataSimple fractional = field(fractionalValues, IDS[1]);
+        long written = 0;
+        for(int i = 0; i < CALLS; i++){
+            out.clear();
+            if(useStrings){
+                out.append(String.format("%.2f", (float)(i * 0.37 - 5000.0013))).append(Long.toString(i * 7919L - 300000))
+                        .append(Long.toHexString(i * 104729L).toUpperCase());
+            }else{
+                out.appendFixed(i * 0.37 - 5000.0013, 2, '.').append(i * 7919L - 300000).appendHex(i * 104729L);
+                integral.appendValue(integralValues, out, '.');
+                fractional.appendValue(fractionalValues, out, '.');
+            }
+            written += out.length();
+        }
+        return written;
+    }
+    @Test
+    public void formattingAllocatesNothing(){
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long thread = Thread.currentThread().getId();
+        ValueStore integralValues = values(1, IDS[0]);
+        ValueStore fractionalValues = values(0.1f, IDS[1]);
+        field(integralValues, IDS[0]).setValue(integralValues, 123456);
+        field(fractionalValues, IDS[1]).setValue(fractionalValues, 123456);
+        integralValues.takeSnapshot();
+        fractionalValues.takeSnapshot();
+        TextBuffer out = new TextBuffer(256);
+        //warm up, also grows nothing: the buffer is large enough
+        formatValues(out, integralValues, fractionalValues, false);
+        formatValues(out, integralValues, fractionalValues, true);
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        formatValues(out, integralValues, fractionalValues, false);
+        long buffer = threads.getThreadAllocatedBytes(thread) - before;
+        before = threads.getThreadAllocatedBytes(thread);
+        formatValues(out, integralValues, fractionalValues, true);
+        long strings = threads.getThreadAllocatedBytes(thread) - before;
+
+        //a few bytes for the measurement itself, nothing per call
+        assertTrue("allocated " + buffer + " bytes", buffer < 1024);
+        assertTrue(strings > CALLS);
+    }
+}